@@ -6,9 +6,12 @@ import com.fasterxml.jackson.core.io.IOContext;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.impl.XlsxPackage;
+import com.github.sett4.dataformat.xlsx.impl.XlsxWriter;
 
 import java.io.*;
 import java.net.URL;
+import java.util.List;
 
 public class XlsxFactory
         extends JsonFactory
@@ -39,6 +42,17 @@ public class XlsxFactory
 
     protected CsvSchema _schema;
 
+    /**
+     * Not serialized: metrics are bound to the running application.
+     */
+    protected transient XlsxMetrics _metrics = XlsxMetrics.NOP;
+
+    /**
+     * Limit for estimated heap retained by buffered rows of a single
+     * generator; 0 means no limit.
+     */
+    protected long _maxRetainedBytes;
+
     /*
     /**********************************************************************
     /* Factory construction, configuration
@@ -70,7 +84,8 @@ public class XlsxFactory
 //        _formatParserFeatures = src._formatParserFeatures;
 //        _formatGeneratorFeatures = src._formatGeneratorFeatures;
         this._schema = src._schema;
-
+        this._metrics = (src._metrics == null) ? XlsxMetrics.NOP : src._metrics;
+        this._maxRetainedBytes = src._maxRetainedBytes;
     }
 
 
@@ -81,6 +96,38 @@ public class XlsxFactory
     }
 
 
+    /**
+     * Method for registering {@link XlsxMetrics} to be notified about
+     * output written by generators this factory creates.
+     *
+     * @param metrics Metrics to use; <code>null</code> to reset to the default no-op instance
+     */
+    public XlsxFactory setMetrics(XlsxMetrics metrics) {
+        _metrics = (metrics == null) ? XlsxMetrics.NOP : metrics;
+        return this;
+    }
+
+    public XlsxMetrics getMetrics() {
+        return _metrics;
+    }
+
+    /**
+     * Method for limiting heap used by a single generator for rows that are
+     * not yet flushed to temporary files. When the estimated size of buffered
+     * rows goes over the limit they are flushed early; if a single row is
+     * larger than the limit, writing fails with an {@link IOException}.
+     *
+     * @param maxBytes Maximum estimated size in bytes; 0 or less for no limit
+     */
+    public XlsxFactory setMaxRetainedBytes(long maxBytes) {
+        _maxRetainedBytes = Math.max(0L, maxBytes);
+        return this;
+    }
+
+    public long getMaxRetainedBytes() {
+        return _maxRetainedBytes;
+    }
+
     /*
     /**********************************************************
     /* Serializable overrides
@@ -207,6 +254,34 @@ public class XlsxFactory
         return (CsvParser) super.createParser(data, offset, len);
     }
     
+    /*
+    /******************************************************
+    /* Metadata access
+    /******************************************************
+     */
+
+    /**
+     * Method for quickly determining sheets of given XLSX file, along with
+     * their row and column counts, without reading any cell values.
+     * Sheets are resolved with POI's event API; per sheet, only its leading
+     * <code>&lt;dimension&gt;</code> element is read when available; otherwise
+     * row and cell references of the sheet are scanned.
+     */
+    public List<XlsxSheetInfo> probeSheets(File f) throws IOException {
+        try (XlsxPackage pkg = new XlsxPackage(f)) {
+            return pkg.probeSheets();
+        }
+    }
+
+    /**
+     * Method for determining names of sheets in given XLSX file, in workbook order.
+     */
+    public List<String> sheetNames(File f) throws IOException {
+        try (XlsxPackage pkg = new XlsxPackage(f)) {
+            return pkg.getSheetNames();
+        }
+    }
+
     /*
     /******************************************************
     /* Factory methods: generators
@@ -277,8 +352,16 @@ public class XlsxFactory
 
     private XlsxGenerator _createGenerator(IOContext ctxt, OutputStream out) throws IOException {
         XlsxGenerator gen = new XlsxGenerator(ctxt, _generatorFeatures, -1,
-                _objectCodec, out, _schema);
+                _objectCodec, out, _schema, _metrics, _maxRetainedBytes);
         // any other initializations? No?
         return gen;
     }
+
+    /**
+     * Writer for the row-level fast paths of {@link XlsxMapper}, configured
+     * the same way as those of generators.
+     */
+    XlsxWriter _createXlsxWriter(OutputStream out) {
+        return new XlsxWriter(out, _metrics, _maxRetainedBytes);
+    }
 }
@@ -5,19 +5,27 @@ import com.fasterxml.jackson.core.base.GeneratorBase;
 import com.fasterxml.jackson.core.io.IOContext;
 import com.fasterxml.jackson.core.json.JsonWriteContext;
 import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.fasterxml.jackson.dataformat.csv.PackageVersion;
+import com.github.sett4.dataformat.xlsx.impl.ColumnPath;
 import com.github.sett4.dataformat.xlsx.impl.XlsxWriter;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class XlsxGenerator extends GeneratorBase {
-    Logger log = Logger.getLogger(XlsxGenerator.class.getCanonicalName());
+    private static final Logger log = Logger.getLogger(XlsxGenerator.class.getCanonicalName());
 
     //    private final IOContext _outputContext;
     private final int xlsxFeatures;
@@ -73,13 +81,73 @@ public class XlsxGenerator extends GeneratorBase {
      */
     protected JsonWriteContext _skipWithin;
 
+    /**
+     * Value classes last seen for each column by {@link #writeRow}, along with
+     * matching {@link #_rowColumnKinds}; used to resolve value type once per
+     * column instead of once per cell.
+     */
+    protected Class<?>[] _rowColumnClasses;
+
+    protected byte[] _rowColumnKinds;
+
+    /**
+     * Reusable buffer for values of a Map row, indexed by column.
+     */
+    protected Object[] _rowSlots;
+
+    /**
+     * Key serializer last used for keys of Map rows, along with key class
+     * and provider it was resolved for.
+     */
+    protected JsonSerializer<Object> _rowKeySerializer;
+
+    protected Class<?> _rowKeyClass;
+
+    protected SerializerProvider _rowKeyProvider;
+
+    /**
+     * Tree of dotted column names of current schema, used for flattening
+     * nested Objects; built lazily when first needed.
+     */
+    protected ColumnPath _columnPaths;
+
+    /**
+     * Column group matched by last field name, when its (Object) value
+     * is yet to be written.
+     */
+    protected ColumnPath _pendingPath;
+
+    /**
+     * Column group of the nested Object being written, if any.
+     */
+    protected ColumnPath _currentPath;
+
     public XlsxGenerator(IOContext ioCtxt,
                          int generatorFeatures, int xlsxFeatures,
                          ObjectCodec codec, OutputStream out, CsvSchema schema) {
+        this(ioCtxt, generatorFeatures, xlsxFeatures, codec, out, schema, XlsxMetrics.NOP, 0L);
+    }
+
+    /**
+     * @param metrics          Callback to report rows, cells and timings to
+     * @param maxRetainedBytes Limit for content retained in memory before
+     *                         rows are flushed; 0 for no limit
+     */
+    public XlsxGenerator(IOContext ioCtxt,
+                         int generatorFeatures, int xlsxFeatures,
+                         ObjectCodec codec, OutputStream out, CsvSchema schema,
+                         XlsxMetrics metrics, long maxRetainedBytes) {
+        this(ioCtxt, generatorFeatures, xlsxFeatures, codec,
+                new XlsxWriter(out, metrics, maxRetainedBytes), schema);
+    }
+
+    XlsxGenerator(IOContext ioCtxt,
+                  int generatorFeatures, int xlsxFeatures,
+                  ObjectCodec codec, XlsxWriter writer, CsvSchema schema) {
         super(generatorFeatures, codec);
 //        this._outputContext = ioCtxt;
         this.xlsxFeatures = xlsxFeatures;
-        this._writer = new XlsxWriter(out);
+        this._writer = writer;
         this._schema = schema;
     }
 
@@ -129,12 +197,18 @@ public class XlsxGenerator extends GeneratorBase {
         if (schema instanceof CsvSchema) {
             if (_schema != schema) {
                 _schema = (CsvSchema) schema;
+                _columnPaths = null;
             }
         } else {
             super.setSchema(schema);
         }
     }
 
+    @Override
+    public CsvSchema getSchema() {
+        return _schema;
+    }
+
     @Override
     public int getFormatFeatures() {
         return xlsxFeatures;
@@ -207,7 +281,7 @@ public class XlsxGenerator extends GeneratorBase {
             } else if (!_skipValue) {
                 // First: column may have its own separator
                 String sep;
-                if (_nextColumnByName >= 0) {
+                if (_nextColumnByName >= 0 && _nextColumnByName < _schema.size()) {
                     CsvSchema.Column col = _schema.column(_nextColumnByName);
                     sep = col.isArray() ? col.getArrayElementSeparator() : CsvSchema.NO_ARRAY_ELEMENT_SEPARATOR;
                 } else {
@@ -265,7 +339,15 @@ public class XlsxGenerator extends GeneratorBase {
     @Override
     public final void writeStartObject() throws IOException {
         log.fine("writeStartObject");
+        ColumnPath path = _pendingPath;
+        _pendingPath = null;
         _verifyValueWrite("start an object");
+        // Nested Object whose properties map to flattened "parent.child" columns
+        if (path != null) {
+            _currentPath = path;
+            _writeContext = _writeContext.createChildObjectContext();
+            return;
+        }
         // No nesting for objects; can write Objects inside logical root-level arrays.
         // 14-Dec-2015, tatu: ... except, should be fine if we are ignoring the property
         if (_writeContext.inObject() ||
@@ -296,6 +378,10 @@ public class XlsxGenerator extends GeneratorBase {
             }
             return;
         }
+        if (_currentPath != null) {
+            _currentPath = _currentPath.getParent();
+            return;
+        }
         // not 100% fool-proof, but chances are row should be done now
         finishRow();
     }
@@ -314,7 +400,7 @@ public class XlsxGenerator extends GeneratorBase {
 
     @Override
     public void writeFieldName(String name) throws IOException {
-        log.fine("writeFieldName: " + name);
+        log.log(Level.FINE, "writeFieldName: {0}", name);
         if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
             _reportError("Can not write a field name, expecting a value");
         }
@@ -323,7 +409,7 @@ public class XlsxGenerator extends GeneratorBase {
 
     @Override
     public final void writeFieldName(SerializableString name) throws IOException {
-        log.fine("writeFieldName: " + name);
+        log.log(Level.FINE, "writeFieldName: {0}", name);
         // Object is a value, need to verify it's allowed
         if (_writeContext.writeFieldName(name.getValue()) == JsonWriteContext.STATUS_EXPECT_VALUE) {
             _reportError("Can not write a field name, expecting a value");
@@ -352,9 +438,19 @@ public class XlsxGenerator extends GeneratorBase {
             _nextColumnByName = -1;
             return;
         }
+        if (_currentPath != null) {
+            _writeNestedFieldName(name);
+            return;
+        }
         // note: we are likely to get next column name, so pass it as hint
         CsvSchema.Column col = _schema.column(name, _nextColumnByName + 1);
         if (col == null) {
+            ColumnPath path = _columnPaths().child(name);
+            if (path != null) {
+                _skipValue = false;
+                _pendingPath = path;
+                return;
+            }
             if (isEnabled(JsonGenerator.Feature.IGNORE_UNKNOWN)) {
                 _skipValue = true;
                 _nextColumnByName = -1;
@@ -368,6 +464,32 @@ public class XlsxGenerator extends GeneratorBase {
         _nextColumnByName = col.getIndex();
     }
 
+    private void _writeNestedFieldName(String name) throws IOException {
+        ColumnPath path = _currentPath.child(name);
+        if (path == null) {
+            if (isEnabled(JsonGenerator.Feature.IGNORE_UNKNOWN)) {
+                _skipValue = true;
+                _nextColumnByName = -1;
+                return;
+            }
+            _reportMappingError("Unrecognized column '" + _currentPath.getPath() + "." + name
+                    + "': known columns: " + _schema.getColumnDesc());
+        }
+        _skipValue = false;
+        if (path.getColumnIndex() >= 0) {
+            _nextColumnByName = path.getColumnIndex();
+        } else {
+            _pendingPath = path;
+        }
+    }
+
+    protected ColumnPath _columnPaths() {
+        if (_columnPaths == null) {
+            _columnPaths = ColumnPath.forSchema(_schema);
+        }
+        return _columnPaths;
+    }
+
     @Override
     public void writeString(String text) throws IOException {
         log.fine("writeString");
@@ -592,6 +714,12 @@ public class XlsxGenerator extends GeneratorBase {
 
     @Override
     public void writeNull() throws IOException {
+        if (this._pendingPath != null) {
+            // null nested Object: leave all of its columns empty
+            this._pendingPath = null;
+            this._verifyValueWrite("write null value");
+            return;
+        }
         this._verifyValueWrite("write null value");
         if (!this._skipValue) {
             if (!this._arraySeparator.isEmpty()) {
@@ -604,6 +732,315 @@ public class XlsxGenerator extends GeneratorBase {
         }
     }
 
+    /*
+    /**********************************************************
+    /* Public API: positional rows
+    /**********************************************************
+     */
+
+    /**
+     * Method for writing a complete row positionally: value at index <code>i</code>
+     * goes to column <code>i</code>. This is considerably cheaper than writing
+     * values one by one, as type of values is resolved once per column and no
+     * per-value context checks are needed.
+     * <p>
+     * Strings, numbers (wrappers, <code>BigInteger</code>, <code>BigDecimal</code>),
+     * Booleans and <code>byte[]</code> (Base64-encoded) are written directly;
+     * other values are serialized using {@link ObjectCodec} of this generator
+     * if it has one (or written using <code>toString()</code> if not), the same
+     * way as property values of the column: so Collections and arrays are joined
+     * using array element separator, and Objects are not supported.
+     * <code>null</code>s are written as empty cells.
+     * Can be called either at root level, or within root-level array; not
+     * within an Object: see {@link #canWriteRow()}.
+     */
+    public void writeRow(Object[] values) throws IOException {
+        writeRow(values, null);
+    }
+
+    /**
+     * Same as {@link #writeRow(Object[])} except that values not written directly
+     * are serialized using given provider (if not null), so that configuration
+     * of the <code>ObjectWriter</code> in use applies to them.
+     */
+    public void writeRow(Object[] values, SerializerProvider provider) throws IOException {
+        _startRow(values.length);
+        for (int i = 0, len = values.length; i < len; ++i) {
+            _writeRowValue(i, values[i], provider);
+        }
+        _endRow();
+    }
+
+    /**
+     * Same as {@link #writeRow(Object[])} but for values in a {@link List}.
+     */
+    public void writeRow(List<?> values) throws IOException {
+        writeRow(values, null);
+    }
+
+    public void writeRow(List<?> values, SerializerProvider provider) throws IOException {
+        final int len = values.size();
+        _startRow(len);
+        if (values instanceof RandomAccess) {
+            for (int i = 0; i < len; ++i) {
+                _writeRowValue(i, values.get(i), provider);
+            }
+        } else {
+            int i = 0;
+            for (Object value : values) {
+                _writeRowValue(i++, value, provider);
+            }
+        }
+        _endRow();
+    }
+
+    /**
+     * Method for writing a complete row out of a {@link Map}, with keys
+     * matched to column names of the schema. Values are written in column
+     * order regardless of iteration order of the map, in the same way as
+     * with {@link #writeRow(Object[])}. Unknown keys are reported as errors,
+     * unless {@link JsonGenerator.Feature#IGNORE_UNKNOWN} is enabled.
+     * Keys are converted to column names using <code>String.valueOf()</code>.
+     */
+    public void writeRow(Map<?, ?> values) throws IOException {
+        writeRow(values, null);
+    }
+
+    /**
+     * Same as {@link #writeRow(Map)} except that given provider (if not null)
+     * is used both for converting keys to column names, using key serializers,
+     * and for serializing values not written directly.
+     * <p>
+     * Keys that match a group of flattened columns ("key.property") are written
+     * after other columns, with their values serialized as nested Objects.
+     */
+    public void writeRow(Map<?, ?> values, SerializerProvider provider) throws IOException {
+        if (_schema == null || _schema.size() == 0) {
+            _reportMappingError("Can not write a Map row without CsvSchema that defines columns");
+        }
+        final int columnCount = _schema.size();
+        Object[] slots = _rowSlots;
+        if (slots == null || slots.length < columnCount) {
+            _rowSlots = slots = new Object[columnCount];
+        }
+        _startRow(columnCount);
+        List<Map.Entry<?, ?>> nested = null;
+        try {
+            for (Map.Entry<?, ?> entry : values.entrySet()) {
+                // resolves column the same way as for a property name
+                _writeRowKey(entry.getKey(), provider);
+                if (_pendingPath != null) {
+                    _pendingPath = null;
+                    if (nested == null) {
+                        nested = new ArrayList<>();
+                    }
+                    nested.add(entry);
+                } else if (!_skipValue) {
+                    slots[_nextColumnByName] = entry.getValue();
+                }
+                _writeContext.writeValue();
+            }
+            for (int i = 0; i < columnCount; ++i) {
+                _writeRowValue(i, slots[i], provider);
+            }
+        } finally {
+            Arrays.fill(slots, 0, columnCount, null);
+        }
+        if (nested != null) {
+            for (Map.Entry<?, ?> entry : nested) {
+                _writeRowKey(entry.getKey(), provider);
+                Object value = entry.getValue();
+                if (value == null) {
+                    writeNull();
+                } else {
+                    _serializeRowValue(value, provider);
+                }
+            }
+        }
+        _endRow();
+    }
+
+    /**
+     * Accessor for checking whether a complete row may be written with one of
+     * <code>writeRow</code> methods at this point: that is, at root level or
+     * directly within a root-level array.
+     */
+    public boolean canWriteRow() {
+        if (_writeContext.inRoot()) {
+            return true;
+        }
+        return _writeContext.inArray() && _writeContext.getParent().inRoot();
+    }
+
+    private final static byte ROW_KIND_OTHER = 0;
+    private final static byte ROW_KIND_STRING = 1;
+    private final static byte ROW_KIND_INT = 2;
+    private final static byte ROW_KIND_LONG = 3;
+    private final static byte ROW_KIND_DOUBLE = 4;
+    private final static byte ROW_KIND_FLOAT = 5;
+    private final static byte ROW_KIND_BOOLEAN = 6;
+    private final static byte ROW_KIND_BIG_DECIMAL = 7;
+    private final static byte ROW_KIND_BIG_INTEGER = 8;
+    private final static byte ROW_KIND_BINARY = 9;
+
+    /**
+     * Method called at start of a row written by one of <code>writeRow</code>
+     * methods. Row gets an Object context of its own, so that values that are
+     * delegated to data-binding are handled as property values of their column.
+     */
+    protected void _startRow(int columnCount) throws IOException {
+        if (!canWriteRow()) {
+            _reportError("Can not write a row within " + _writeContext.typeDesc()
+                    + ": only at root level or within a root-level Array");
+        }
+        _verifyValueWrite("write row");
+        _skipValue = false;
+        if (_rowColumnClasses == null) {
+            _rowColumnClasses = new Class<?>[columnCount];
+            _rowColumnKinds = new byte[columnCount];
+        } else if (_rowColumnClasses.length < columnCount) {
+            _rowColumnClasses = Arrays.copyOf(_rowColumnClasses, columnCount);
+            _rowColumnKinds = Arrays.copyOf(_rowColumnKinds, columnCount);
+        }
+        _writeContext = _writeContext.createChildObjectContext();
+    }
+
+    protected void _endRow() throws IOException {
+        _writeContext = _writeContext.getParent();
+        finishRow();
+    }
+
+    protected void _writeRowValue(int column, Object value, SerializerProvider provider) throws IOException {
+        if (value == null) {
+            return;
+        }
+        byte kind;
+        Class<?> cls = value.getClass();
+        if (cls == _rowColumnClasses[column]) {
+            kind = _rowColumnKinds[column];
+        } else {
+            kind = _rowValueKind(value);
+            _rowColumnClasses[column] = cls;
+            _rowColumnKinds[column] = kind;
+        }
+        switch (kind) {
+        case ROW_KIND_STRING:
+            _writer.write(column, (String) value);
+            break;
+        case ROW_KIND_INT:
+            _writer.write(column, ((Number) value).intValue());
+            break;
+        case ROW_KIND_LONG:
+            _writer.write(column, ((Long) value).longValue());
+            break;
+        case ROW_KIND_DOUBLE:
+            _writer.write(column, ((Double) value).doubleValue());
+            break;
+        case ROW_KIND_FLOAT:
+            _writer.write(column, ((Float) value).floatValue());
+            break;
+        case ROW_KIND_BOOLEAN:
+            _writer.write(column, ((Boolean) value).booleanValue());
+            break;
+        case ROW_KIND_BIG_DECIMAL:
+            if (isEnabled(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)) {
+                _writer.write(column, ((BigDecimal) value).toPlainString());
+            } else {
+                _writer.write(column, ((BigDecimal) value).doubleValue());
+            }
+            break;
+        case ROW_KIND_BIG_INTEGER:
+            _writer.write(column, ((BigInteger) value).doubleValue());
+            break;
+        case ROW_KIND_BINARY:
+            _writer.write(column, Base64Variants.getDefaultVariant().encode((byte[]) value));
+            break;
+        default:
+            if (provider == null && _objectCodec == null) {
+                _writer.write(column, value.toString());
+                break;
+            }
+            // let databind decide representation, as for property value of this column
+            _writeContext.writeFieldName(_rowColumnName(column));
+            _nextColumnByName = column;
+            _skipValue = false;
+            try {
+                _serializeRowValue(value, provider);
+            } finally {
+                _nextColumnByName = -1;
+            }
+        }
+    }
+
+    private void _serializeRowValue(Object value, SerializerProvider provider) throws IOException {
+        if (provider != null) {
+            provider.defaultSerializeValue(value, this);
+        } else if (_objectCodec != null) {
+            _objectCodec.writeValue(this, value);
+        } else {
+            _reportMappingError("Can not serialize value of type " + value.getClass().getName()
+                    + " without ObjectCodec");
+        }
+    }
+
+    private String _rowColumnName(int column) {
+        return (_schema != null && column < _schema.size())
+                ? _schema.columnName(column) : String.valueOf(column);
+    }
+
+    /**
+     * Writes key of a Map row as field name, which resolves column for the value.
+     */
+    private void _writeRowKey(Object key, SerializerProvider provider) throws IOException {
+        if (provider == null) {
+            writeFieldName(String.valueOf(key));
+            return;
+        }
+        if (key == null) {
+            provider.findNullKeySerializer(provider.constructType(Object.class), null)
+                    .serialize(null, this, provider);
+            return;
+        }
+        Class<?> cls = key.getClass();
+        if (cls != _rowKeyClass || provider != _rowKeyProvider) {
+            _rowKeySerializer = provider.findKeySerializer(cls, null);
+            _rowKeyClass = cls;
+            _rowKeyProvider = provider;
+        }
+        _rowKeySerializer.serialize(key, this, provider);
+    }
+
+    private static byte _rowValueKind(Object value) {
+        if (value instanceof String) {
+            return ROW_KIND_STRING;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ROW_KIND_INT;
+        }
+        if (value instanceof Long) {
+            return ROW_KIND_LONG;
+        }
+        if (value instanceof Double) {
+            return ROW_KIND_DOUBLE;
+        }
+        if (value instanceof Float) {
+            return ROW_KIND_FLOAT;
+        }
+        if (value instanceof Boolean) {
+            return ROW_KIND_BOOLEAN;
+        }
+        if (value instanceof BigDecimal) {
+            return ROW_KIND_BIG_DECIMAL;
+        }
+        if (value instanceof BigInteger) {
+            return ROW_KIND_BIG_INTEGER;
+        }
+        if (value instanceof byte[]) {
+            return ROW_KIND_BINARY;
+        }
+        return ROW_KIND_OTHER;
+    }
+
     @Override
     protected void _releaseBuffers() {
 
@@ -615,6 +1052,10 @@ public class XlsxGenerator extends GeneratorBase {
         if (status == JsonWriteContext.STATUS_EXPECT_NAME) {
             _reportError("Can not " + typeMsg + ", expecting field name");
         }
+        if (_pendingPath != null) {
+            _reportMappingError("Can not " + typeMsg + " for '" + _pendingPath.getPath()
+                    + "': its columns expect an Object value");
+        }
         if (_handleFirstLine) {
             _handleFirstLine();
         }
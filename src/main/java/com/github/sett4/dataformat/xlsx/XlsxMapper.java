@@ -1,16 +1,64 @@
 package com.github.sett4.dataformat.xlsx;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.json.JsonReadFeature;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
 import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
 import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.jdk14.JDK14Util;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import com.fasterxml.jackson.databind.util.LRUMap;
 import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.impl.CsvSheetWriter;
+import com.github.sett4.dataformat.xlsx.impl.MapRowSerializer;
+import com.github.sett4.dataformat.xlsx.impl.ResultSetRowWriter;
+import com.github.sett4.dataformat.xlsx.impl.XlsxPackage;
+import com.github.sett4.dataformat.xlsx.impl.XlsxWriter;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
 
 /**
  * Specialized {@link ObjectMapper}, with extended functionality to
@@ -19,6 +67,8 @@ import java.util.Collection;
 public class XlsxMapper extends ObjectMapper {
     private static final long serialVersionUID = 1;
 
+    private static final Logger log = Logger.getLogger(XlsxMapper.class.getCanonicalName());
+
     /**
      * Simple caching for schema instances, given that they are relatively expensive
      * to construct; this one is for "loose" (non-typed) schemas
@@ -31,6 +81,23 @@ public class XlsxMapper extends ObjectMapper {
      */
     protected final LRUMap<JavaType, CsvSchema> _typedSchemas;
 
+    /**
+     * Whether schema columns of records follow declaration order of record
+     * components instead of the default (alphabetic) property order.
+     */
+    protected boolean _recordComponentOrder;
+
+    /**
+     * Modules that replace reflection-based property access with generated
+     * accessors, in order of preference: Blackbird (<code>MethodHandle</code>
+     * and <code>LambdaMetafactory</code> based) and Afterburner (bytecode
+     * generation, for older JDKs).
+     */
+    private static final String[] ACCESSOR_MODULES = {
+            "com.fasterxml.jackson.module.blackbird.BlackbirdModule",
+            "com.fasterxml.jackson.module.afterburner.AfterburnerModule"
+    };
+
 
     public static XlsxMapper.Builder builder() {
         return new XlsxMapper.Builder(new XlsxMapper());
@@ -55,6 +122,9 @@ public class XlsxMapper extends ObjectMapper {
         super(f);
         // As per #11: default to alphabetic ordering
         enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+        // Map rows are written in column order, not key by key
+        registerModule(new SimpleModule("XlsxMapRows")
+                .setSerializerModifier(new MapRowSerializer.Modifier()));
         _untypedSchemas = new LRUMap<JavaType, CsvSchema>(8, 32);
         _typedSchemas = new LRUMap<JavaType, CsvSchema>(8, 32);
     }
@@ -68,6 +138,7 @@ public class XlsxMapper extends ObjectMapper {
      */
     protected XlsxMapper(XlsxMapper src) {
         super(src);
+        _recordComponentOrder = src._recordComponentOrder;
         _untypedSchemas = new LRUMap<JavaType, CsvSchema>(8, 32);
         _typedSchemas = new LRUMap<JavaType, CsvSchema>(8, 32);
     }
@@ -101,6 +172,60 @@ public class XlsxMapper extends ObjectMapper {
         return this;
     }
 
+    /**
+     * Method for specifying whether schemas generated for records list their
+     * columns in declaration order of record components, instead of the
+     * property order used for other POJOs (alphabetic, by default).
+     * Disabled by default. Explicit ordering of a record with
+     * {@link com.fasterxml.jackson.annotation.JsonPropertyOrder} still takes
+     * precedence; ordering of other types is not affected.
+     */
+    public XlsxMapper setRecordComponentOrder(boolean state) {
+        if (state != _recordComponentOrder) {
+            _recordComponentOrder = state;
+            _untypedSchemas.clear();
+            _typedSchemas.clear();
+        }
+        return this;
+    }
+
+    public boolean isRecordComponentOrder() {
+        return _recordComponentOrder;
+    }
+
+    /**
+     * Method for registering a module that uses generated accessors instead of
+     * reflection for reading bean properties, which speeds up serialization of
+     * wide beans considerably. Blackbird module is used if available, and
+     * Afterburner otherwise; neither is a dependency of this module, so one
+     * has to be added to the classpath explicitly.
+     *
+     * @return True if a module was found and registered; false if neither
+     *   is available
+     */
+    public boolean findAndRegisterAccessorModule() {
+        Module module = _findAccessorModule();
+        if (module == null) {
+            return false;
+        }
+        registerModule(module);
+        return true;
+    }
+
+    protected static Module _findAccessorModule() {
+        for (String name : ACCESSOR_MODULES) {
+            try {
+                Class<?> cls = Class.forName(name, true, XlsxMapper.class.getClassLoader());
+                return (Module) cls.getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException | LinkageError e) {
+                // not on classpath (or not usable on this JDK); try next one
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to create accessor module " + name + ": " + e.getMessage(), e);
+            }
+        }
+        return null;
+    }
+
     /*
     /**********************************************************************
     /* Additional typed accessors
@@ -217,6 +342,246 @@ public class XlsxMapper extends ObjectMapper {
         return writerFor(type).with(typedSchemaFor(type));
     }
 
+    /*
+    /**********************************************************************
+    /* Batch writing
+    /**********************************************************************
+     */
+
+    /**
+     * Method for writing positional rows, each either an <code>Object[]</code>
+     * or a {@link List}, using {@link XlsxGenerator#writeRow} instead of
+     * data-binding: value at index <code>i</code> of a row goes to column
+     * <code>i</code>. Values that are not Strings, numbers or booleans are
+     * written using serializers of this mapper. Target stream is not closed.
+     *
+     * @param schema Schema that defines header, if one is to be written
+     */
+    public void writeRows(OutputStream out, CsvSchema schema, Iterator<?> rows) throws IOException {
+        // one provider for all rows, so that serializers are only looked up once
+        final SerializerProvider provider = getSerializerProviderInstance();
+        try (XlsxGenerator g = (XlsxGenerator) getFactory().createGenerator(out)) {
+            g.setSchema(schema);
+            while (rows.hasNext()) {
+                Object row = rows.next();
+                if (row instanceof Object[]) {
+                    g.writeRow((Object[]) row, provider);
+                } else if (row instanceof List<?>) {
+                    g.writeRow((List<?>) row, provider);
+                } else {
+                    throw new IllegalArgumentException("Rows must be Object arrays or Lists, got "
+                            + ((row == null) ? "null" : row.getClass().getName()));
+                }
+            }
+        }
+    }
+
+    public void writeRows(OutputStream out, CsvSchema schema, Iterable<?> rows) throws IOException {
+        writeRows(out, schema, rows.iterator());
+    }
+
+    /**
+     * Method for writing data held as columns into a single sheet, without
+     * data-binding: values are read directly from column arrays by row index.
+     * Each column must be an array of <code>double</code>, <code>long</code>,
+     * <code>int</code>, <code>boolean</code> or <code>String</code> (other Object
+     * arrays are written using <code>toString()</code>); all columns must be of
+     * same length. Primitive values are not boxed.
+     * <p>
+     * If schema has columns, their number must match number of column arrays;
+     * header is written if schema uses one. Target stream is not closed.
+     * <p>
+     * Note that a single column has to be wrapped explicitly, for example using
+     * <code>Collections.singletonList(names)</code>: <code>Arrays.asList(names)</code>
+     * would turn a <code>String[]</code> into a list of its values.
+     *
+     * @param columns Column arrays, in column order
+     */
+    public void writeColumns(OutputStream out, CsvSchema schema, List<?> columns) throws IOException {
+        int rowCount = -1;
+        for (Object column : columns) {
+            if (column == null || !column.getClass().isArray()) {
+                throw new IllegalArgumentException("Columns must be arrays, got "
+                        + ((column == null) ? "null" : column.getClass().getName()));
+            }
+            int len = Array.getLength(column);
+            if (rowCount >= 0 && len != rowCount) {
+                throw new IllegalArgumentException("All columns must have the same length: got "
+                        + rowCount + " and " + len);
+            }
+            rowCount = len;
+        }
+        if (schema.size() > 0 && schema.size() != columns.size()) {
+            throw new IllegalArgumentException("Schema has " + schema.size()
+                    + " columns, but " + columns.size() + " column arrays given");
+        }
+        if (schema.usesHeader() && schema.size() == 0) {
+            throw new IllegalArgumentException("Schema specified that header line is to be written; but contains no column names");
+        }
+        XlsxWriter writer = getFactory()._createXlsxWriter(out);
+        try {
+            if (schema.usesHeader()) {
+                for (CsvSchema.Column column : schema) {
+                    writer.writeColumnName(column.getName(), column.getIndex());
+                }
+                writer.endRow();
+            }
+            writer.writeColumns(columns.toArray(), 0, Math.max(rowCount, 0));
+        } finally {
+            // also removes temporary files
+            writer.close();
+        }
+    }
+
+    /**
+     * Method for writing all remaining rows of given JDBC result set into a
+     * single sheet, using schema derived from result set metadata; see
+     * {@link #schemaFor(ResultSetMetaData)}. Result set is not closed.
+     *
+     * @param header Whether to write header row with column labels
+     *
+     * @return Number of rows written (not counting header)
+     */
+    public long writeResultSet(OutputStream out, ResultSet rs, boolean header)
+            throws IOException, SQLException {
+        CsvSchema schema = schemaFor(rs.getMetaData());
+        return writeResultSet(out, rs, header ? schema.withHeader() : schema, 0);
+    }
+
+    /**
+     * Method for writing all remaining rows of given JDBC result set into a
+     * single sheet, without binding rows to objects: accessors are chosen once
+     * per column based on its SQL type, and numeric and boolean values are read
+     * using primitive getters. Date and timestamp columns are written as
+     * date-formatted cells. Result set is not closed.
+     *
+     * @param schema Schema used for header (if enabled); if it has columns, their
+     *               number must match that of result set
+     * @param fetchSize Fetch size hint to set on result set; 0 to leave as is
+     *
+     * @return Number of rows written (not counting header)
+     */
+    public long writeResultSet(OutputStream out, ResultSet rs, CsvSchema schema, int fetchSize)
+            throws IOException, SQLException {
+        ResultSetMetaData metadata = rs.getMetaData();
+        if (schema.size() > 0 && schema.size() != metadata.getColumnCount()) {
+            throw new IllegalArgumentException("Schema has " + schema.size()
+                    + " columns, but result set " + metadata.getColumnCount());
+        }
+        if (fetchSize > 0) {
+            rs.setFetchSize(fetchSize);
+        }
+        ResultSetRowWriter rows = new ResultSetRowWriter(metadata);
+        if (schema.usesHeader() && schema.size() == 0) {
+            schema = ResultSetRowWriter.schemaFor(metadata);
+        }
+        XlsxWriter writer = getFactory()._createXlsxWriter(out);
+        try {
+            if (schema.usesHeader()) {
+                for (CsvSchema.Column column : schema) {
+                    writer.writeColumnName(column.getName(), column.getIndex());
+                }
+                writer.endRow();
+            }
+            return rows.writeRows(rs, writer);
+        } finally {
+            // also removes temporary files
+            writer.close();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Conversion from CSV
+    /**********************************************************************
+     */
+
+    /**
+     * Method for converting CSV content into a single XLSX sheet, streaming
+     * tokens from {@link CsvParser} directly into {@link XlsxGenerator}
+     * without binding rows to Java objects; memory use does not depend on
+     * input size.
+     * <p>
+     * Cell types follow column types of given schema: <code>NUMBER</code> and
+     * <code>BOOLEAN</code> columns are written as such, <code>NUMBER_OR_STRING</code>
+     * columns as numbers if the value looks like one. If schema defines no columns
+     * (including the case of column names read from header line), every value is
+     * checked as if its column was <code>NUMBER_OR_STRING</code>. Numbers with
+     * leading zeroes are kept as Strings, as they are usually codes, and so are
+     * numbers with more than 15 significant digits, which a cell could not hold
+     * without rounding.
+     * Empty values produce empty cells.
+     * <p>
+     * If schema uses header line, header is also written to the XLSX sheet.
+     * Neither source nor target is closed.
+     */
+    public void convertCsv(Reader csv, CsvSchema csvSchema, OutputStream out) throws IOException {
+        try (CsvParser p = new CsvFactory().createParser(csv);
+             JsonGenerator g = getFactory().createGenerator(out)) {
+            p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            p.setSchema(csvSchema);
+            _copyCsvRows(p, csvSchema.size() == 0, g);
+        }
+    }
+
+    public void convertCsv(File csv, CsvSchema csvSchema, File xlsx) throws IOException {
+        try (Reader in = new InputStreamReader(new FileInputStream(csv), StandardCharsets.UTF_8);
+             OutputStream out = new FileOutputStream(xlsx)) {
+            convertCsv(in, csvSchema, out);
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Conversion to CSV
+    /**********************************************************************
+     */
+
+    /**
+     * Method for converting sheets of an XLSX file into CSV, reading
+     * sheet contents as a stream of rows (no workbook model is built) and
+     * writing each row as it is read. Cell values are written as formatted
+     * by POI's {@link DataFormatter}, so dates and formatted numbers look the
+     * way they do in a spreadsheet application; numbers with "General" format
+     * are written with all their digits, without rounding.
+     * <p>
+     * If schema has columns, first row of every sheet is expected to be a header,
+     * and only columns named in schema are written, in schema order; header line
+     * is written to CSV if schema uses header. If schema has no columns, all rows
+     * (including possible header rows) are copied as-is.
+     * <p>
+     * Shared strings of the workbook are held in memory; everything else is
+     * read incrementally. Target is flushed but not closed.
+     *
+     * @param sheetNames Names of sheets to convert, in workbook order;
+     *                   if none given, all sheets are converted
+     *
+     * @throws IOException If a named sheet does not exist in the workbook
+     */
+    public void convertToCsv(File xlsx, CsvSchema csvSchema, Writer csv, String... sheetNames)
+            throws IOException {
+        try (XlsxPackage pkg = new XlsxPackage(xlsx);
+             JsonGenerator gen = new CsvFactory().createGenerator(csv)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setSchema((csvSchema.size() == 0) ? csvSchema.withoutHeader() : csvSchema);
+            final CsvSheetWriter rows = new CsvSheetWriter(gen, csvSchema);
+
+            final ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg.getPackage());
+            final StylesTable styles = pkg.getReader().getStylesTable();
+            final DataFormatter formatter = new CsvSheetWriter.ValueFormatter();
+            final XMLReader xml = XMLHelper.newXMLReader();
+            pkg.readSheets(Arrays.asList(sheetNames), (name, index, in) -> {
+                rows.startSheet(name);
+                xml.setContentHandler(new XSSFSheetXMLHandler(styles, strings, rows, formatter, false));
+                xml.parse(new InputSource(in));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to read XLSX file '" + xlsx + "': " + e.getMessage(), e);
+        }
+    }
+
     /*
     /**********************************************************************
     /* CsvSchema construction; overrides, new methods
@@ -257,6 +622,11 @@ public class XlsxMapper extends ObjectMapper {
      * POJO type, using default serialization settings including ordering.
      * Definition will not be strictly typed (that is, all columns are
      * just defined to be exposed as String tokens).
+     * <p>
+     * Properties with POJO values are flattened into columns named
+     * "property.nestedProperty", which the generator fills directly when
+     * the nested value is written. Columns of records follow declaration
+     * order of record components if {@link #setRecordComponentOrder} is enabled.
      */
     public CsvSchema schemaFor(JavaType pojoType) {
         return _schemaFor(pojoType, _untypedSchemas, false);
@@ -270,6 +640,16 @@ public class XlsxMapper extends ObjectMapper {
         return _schemaFor(constructType(pojoTypeRef.getType()), _untypedSchemas, false);
     }
 
+    /**
+     * Method that can be used to determine a CSV schema for rows of a JDBC
+     * result set: one column per result set column, named using column label.
+     * Definition is typed: numeric SQL types map to <code>NUMBER</code>,
+     * boolean types to <code>BOOLEAN</code> and others to <code>STRING</code>.
+     */
+    public CsvSchema schemaFor(ResultSetMetaData metadata) throws SQLException {
+        return ResultSetRowWriter.schemaFor(metadata);
+    }
+
     /**
      * Method that can be used to determine a CSV schema to use for given
      * POJO type, using default serialization settings including ordering.
@@ -297,20 +677,18 @@ public class XlsxMapper extends ObjectMapper {
 
     protected CsvSchema _schemaFor(JavaType pojoType, LRUMap<JavaType, CsvSchema> schemas,
                                    boolean typed) {
-        synchronized (schemas) {
-            CsvSchema s = schemas.get(pojoType);
-            if (s != null) {
-                return s;
-            }
+        // LRUMap is a concurrent map (since databind 2.14) so no locking needed;
+        // worst case two threads build the same schema and one copy wins
+        CsvSchema s = schemas.get(pojoType);
+        if (s != null) {
+            return s;
         }
         final AnnotationIntrospector intr = _deserializationConfig.getAnnotationIntrospector();
         CsvSchema.Builder builder = CsvSchema.builder();
         _addSchemaProperties(builder, intr, typed, pojoType, null);
         CsvSchema result = builder.build();
-        synchronized (schemas) {
-            schemas.put(pojoType, result);
-        }
-        return result;
+        CsvSchema prev = schemas.putIfAbsent(pojoType, result);
+        return (prev == null) ? result : prev;
     }
 
     protected boolean _nonPojoType(JavaType t) {
@@ -343,14 +721,29 @@ public class XlsxMapper extends ObjectMapper {
     protected void _addSchemaProperties(CsvSchema.Builder builder, AnnotationIntrospector intr,
                                         boolean typed,
                                         JavaType pojoType, NameTransformer unwrapper) {
+        _addSchemaProperties(builder, intr, typed, pojoType, unwrapper, new HashSet<Class<?>>());
+    }
+
+    /**
+     * @param parents Types of POJOs being flattened, to stop at cyclic references
+     */
+    protected void _addSchemaProperties(CsvSchema.Builder builder, AnnotationIntrospector intr,
+                                        boolean typed,
+                                        JavaType pojoType, NameTransformer unwrapper,
+                                        Set<Class<?>> parents) {
         // 09-Aug-2015, tatu: From [dataformat-csv#87], realized that one can not have
         //    real schemas for primitive/wrapper
         if (_nonPojoType(pojoType)) {
             return;
         }
+        parents.add(pojoType.getRawClass());
 
         BeanDescription beanDesc = getSerializationConfig().introspect(pojoType);
-        for (BeanPropertyDefinition prop : beanDesc.findProperties()) {
+        List<BeanPropertyDefinition> props = beanDesc.findProperties();
+        if (_recordComponentOrder && pojoType.isRecordType()) {
+            props = _orderRecordProperties(intr, beanDesc, props);
+        }
+        for (BeanPropertyDefinition prop : props) {
             // ignore setter-only properties:
             if (!prop.couldSerialize()) {
                 continue;
@@ -364,7 +757,7 @@ public class XlsxMapper extends ObjectMapper {
                         nextUnwrapper = NameTransformer.chainedTransformer(unwrapper, nextUnwrapper);
                     }
                     JavaType nextType = m.getType();
-                    _addSchemaProperties(builder, intr, typed, nextType, nextUnwrapper);
+                    _addSchemaProperties(builder, intr, typed, nextType, nextUnwrapper, parents);
                     continue;
                 }
             }
@@ -374,12 +767,79 @@ public class XlsxMapper extends ObjectMapper {
             if (unwrapper != null) {
                 name = unwrapper.transform(name);
             }
+            if (m != null && _isNestedPojo(intr, m, parents)) {
+                _addSchemaProperties(builder, intr, typed, m.getType(),
+                        NameTransformer.simpleTransformer(name + ".", ""), parents);
+                continue;
+            }
             if (typed && m != null) {
                 builder.addColumn(name, _determineType(m.getRawType()));
             } else {
                 builder.addColumn(name);
             }
         }
+        parents.remove(pojoType.getRawClass());
+    }
+
+    /**
+     * Records are ordered by their components, as declared, instead of
+     * alphabetically, unless ordering is explicitly specified with
+     * {@link com.fasterxml.jackson.annotation.JsonPropertyOrder}.
+     * Only called if {@link #setRecordComponentOrder} is enabled.
+     */
+    protected List<BeanPropertyDefinition> _orderRecordProperties(AnnotationIntrospector intr,
+                                                                  BeanDescription beanDesc,
+                                                                  List<BeanPropertyDefinition> props) {
+        AnnotatedClass ac = beanDesc.getClassInfo();
+        String[] explicitOrder = intr.findSerializationPropertyOrder(ac);
+        if ((explicitOrder != null && explicitOrder.length > 0)
+                || Boolean.TRUE.equals(intr.findSerializationSortAlphabetically(ac))) {
+            return props;
+        }
+        String[] components = JDK14Util.getRecordFieldNames(beanDesc.getBeanClass());
+        if (components == null) {
+            return props;
+        }
+        final List<String> componentNames = Arrays.asList(components);
+        List<BeanPropertyDefinition> ordered = new ArrayList<>(props);
+        // stable sort: properties other than components stay at the end, in original order
+        ordered.sort(Comparator.comparingInt(prop -> {
+            int ix = componentNames.indexOf(prop.getInternalName());
+            return (ix < 0) ? Integer.MAX_VALUE : ix;
+        }));
+        return ordered;
+    }
+
+    /**
+     * Helper method for checking whether value of given property is serialized
+     * as a JSON Object with properties of its own (and not, for example, as a
+     * String using custom serializer), so that it can be flattened.
+     */
+    protected boolean _isNestedPojo(AnnotationIntrospector intr, AnnotatedMember m, Set<Class<?>> parents) {
+        JavaType type = m.getType();
+        if (_nonPojoType(type) || type.isContainerType() || type.isReferenceType()
+                || type.isJavaLangObject() || parents.contains(type.getRawClass())) {
+            return false;
+        }
+        if ((intr.findSerializer(m) != null)
+                || !_isObjectShape(intr.findFormat(m))
+                || !_isObjectShape(intr.findFormat(getSerializationConfig().introspectClassAnnotations(type).getClassInfo()))) {
+            return false;
+        }
+        try {
+            return getSerializerProviderInstance().findValueSerializer(type) instanceof BeanSerializerBase;
+        } catch (JsonMappingException e) {
+            // will fail when written, same as without flattening
+            return false;
+        }
+    }
+
+    private static boolean _isObjectShape(JsonFormat.Value format) {
+        if (format == null) {
+            return true;
+        }
+        JsonFormat.Shape shape = format.getShape();
+        return (shape == JsonFormat.Shape.ANY) || (shape == JsonFormat.Shape.OBJECT);
     }
 
     // should not be null since couldSerialize() returned true, so:
@@ -418,6 +878,163 @@ public class XlsxMapper extends ObjectMapper {
         return CsvSchema.ColumnType.NUMBER_OR_STRING;
     }
 
+    protected void _copyCsvRows(CsvParser p, boolean detectTypes, JsonGenerator g) throws IOException {
+        JsonToken t = p.nextToken();
+        // header line (if any) has been read by now, so schema has columns
+        CsvSchema schema = p.getSchema();
+        g.setSchema((schema.size() == 0) ? schema.withoutHeader() : schema);
+        // rows go within a root-level array, so that empty values
+        // of array rows still advance column position
+        g.writeStartArray();
+        int column = 0;
+        for (; t != null; t = p.nextToken()) {
+            switch (t) {
+            case START_OBJECT:
+                g.writeStartObject();
+                break;
+            case END_OBJECT:
+                g.writeEndObject();
+                break;
+            case START_ARRAY:
+                g.writeStartArray();
+                column = 0;
+                break;
+            case END_ARRAY:
+                g.writeEndArray();
+                break;
+            case FIELD_NAME:
+                g.writeFieldName(p.currentName());
+                CsvSchema.Column col = schema.column(p.currentName());
+                column = (col == null) ? -1 : col.getIndex();
+                break;
+            case VALUE_NULL:
+                g.writeNull();
+                ++column;
+                break;
+            default:
+                CsvSchema.ColumnType type = (detectTypes || column < 0 || column >= schema.size())
+                        ? CsvSchema.ColumnType.NUMBER_OR_STRING : schema.column(column).getType();
+                _writeCsvValue(p.getText(), type, g);
+                ++column;
+            }
+        }
+        g.writeEndArray();
+    }
+
+    protected void _writeCsvValue(String text, CsvSchema.ColumnType type, JsonGenerator g) throws IOException {
+        if (text.isEmpty()) {
+            g.writeNull();
+            return;
+        }
+        switch (type) {
+        case BOOLEAN:
+            if ("true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+                g.writeBoolean(Boolean.parseBoolean(text));
+                return;
+            }
+            break;
+        case NUMBER:
+        case NUMBER_OR_STRING:
+            int kind = _numberKind(text);
+            if (kind == NUMBER_INTEGRAL) {
+                g.writeNumber(Long.parseLong(text));
+                return;
+            }
+            if (kind == NUMBER_FLOATING) {
+                g.writeNumber(Double.parseDouble(text));
+                return;
+            }
+            break;
+        default:
+            break;
+        }
+        g.writeString(text);
+    }
+
+    private final static int NUMBER_NONE = 0;
+    private final static int NUMBER_INTEGRAL = 1;
+    private final static int NUMBER_FLOATING = 2;
+
+    /**
+     * Maximum number of significant digits a <code>double</code> (which is
+     * what spreadsheet cells hold) can represent without loss.
+     */
+    private final static int MAX_NUMBER_DIGITS = 15;
+
+    /**
+     * Cheap check for whether given text is a plain decimal number,
+     * with optional sign, fraction and exponent: one that fits in a
+     * <code>long</code> is integral, others are floating-point.
+     * Numbers with more than {@link #MAX_NUMBER_DIGITS} significant digits
+     * are not considered numbers, as they could not be stored as-is.
+     */
+    protected static int _numberKind(String text) {
+        final int len = text.length();
+        int i = 0;
+        char c = text.charAt(0);
+        if (c == '-' || c == '+') {
+            if (len == 1) {
+                return NUMBER_NONE;
+            }
+            ++i;
+        }
+        final int intStart = i;
+        // positions of first and last non-zero digit, counting digits only
+        int firstSignificant = -1;
+        int lastSignificant = -1;
+        while (i < len && (c = text.charAt(i)) >= '0' && c <= '9') {
+            if (c != '0') {
+                if (firstSignificant < 0) {
+                    firstSignificant = i - intStart;
+                }
+                lastSignificant = i - intStart;
+            }
+            ++i;
+        }
+        final int intDigits = i - intStart;
+        // leading zeroes mean it is likely a code, not a number
+        if (intDigits > 1 && text.charAt(intStart) == '0') {
+            return NUMBER_NONE;
+        }
+        if (i == len) {
+            if (intDigits == 0 || lastSignificant - firstSignificant >= MAX_NUMBER_DIGITS) {
+                return NUMBER_NONE;
+            }
+            return (intDigits <= 18) ? NUMBER_INTEGRAL : NUMBER_FLOATING;
+        }
+        int fracDigits = 0;
+        if (text.charAt(i) == '.') {
+            ++i;
+            while (i < len && (c = text.charAt(i)) >= '0' && c <= '9') {
+                if (c != '0') {
+                    if (firstSignificant < 0) {
+                        firstSignificant = intDigits + fracDigits;
+                    }
+                    lastSignificant = intDigits + fracDigits;
+                }
+                ++i;
+                ++fracDigits;
+            }
+        }
+        if (intDigits + fracDigits == 0 || lastSignificant - firstSignificant >= MAX_NUMBER_DIGITS) {
+            return NUMBER_NONE;
+        }
+        if (i < len && ((c = text.charAt(i)) == 'e' || c == 'E')) {
+            ++i;
+            if (i < len && ((c = text.charAt(i)) == '-' || c == '+')) {
+                ++i;
+            }
+            int expStart = i;
+            while (i < len && (c = text.charAt(i)) >= '0' && c <= '9') {
+                ++i;
+            }
+            if (i == expStart) {
+                return NUMBER_NONE;
+            }
+        }
+        return (i == len) ? NUMBER_FLOATING : NUMBER_NONE;
+    }
+
     public static class Builder extends MapperBuilder<XlsxMapper, XlsxMapper.Builder>
     {
         public Builder(XlsxMapper m) {
@@ -457,5 +1074,26 @@ public class XlsxMapper extends ObjectMapper {
             }
             return this;
         }
+
+        /**
+         * @see XlsxMapper#setRecordComponentOrder(boolean)
+         */
+        public XlsxMapper.Builder recordComponentOrder(boolean state) {
+            _mapper.setRecordComponentOrder(state);
+            return this;
+        }
+
+        /**
+         * Adds a generated-accessor module, if one is available; logs a
+         * message if none is.
+         *
+         * @see XlsxMapper#findAndRegisterAccessorModule()
+         */
+        public XlsxMapper.Builder findAndAddAccessorModule() {
+            if (!_mapper.findAndRegisterAccessorModule()) {
+                log.info("Neither Blackbird nor Afterburner module found on classpath; bean properties are accessed using reflection");
+            }
+            return this;
+        }
     }
 }
@@ -0,0 +1,88 @@
+package com.github.sett4.dataformat.xlsx;
+
+import org.apache.poi.ss.usermodel.CellType;
+
+/**
+ * Callback interface for collecting statistics about XLSX output: rows and
+ * cells written, bytes emitted and time spent in different phases of writing.
+ * Instances are registered with {@link XlsxFactory#setMetrics(XlsxMetrics)}
+ * and shared by all generators the factory creates, so implementations
+ * must be thread-safe.
+ * <p>
+ * All methods are no-ops by default; {@link #NOP} is used unless something
+ * else is configured, in which case no timing calls are made either.
+ * <p>
+ * Adapting to a Micrometer-style registry could look like:
+ * <pre>
+ *  Counter rows = registry.counter("xlsx.rows");
+ *  XlsxMetrics metrics = new XlsxMetrics() {
+ *      public void rowWritten() { rows.increment(); }
+ *      public void cellWritten(CellType type) {
+ *          registry.counter("xlsx.cells", "type", type.name()).increment();
+ *      }
+ *      public void bytesWritten(long bytes) {
+ *          registry.counter("xlsx.bytes").increment(bytes);
+ *      }
+ *      public void phaseCompleted(Phase phase, long nanos) {
+ *          registry.timer("xlsx.phase", "phase", phase.name()).record(nanos, TimeUnit.NANOSECONDS);
+ *      }
+ *  };
+ *  XlsxMapper mapper = new XlsxMapper(new XlsxFactory().setMetrics(metrics));
+ * </pre>
+ */
+public interface XlsxMetrics {
+    /**
+     * Default instance that ignores all events.
+     */
+    XlsxMetrics NOP = new XlsxMetrics() { };
+
+    /**
+     * Phases of writing a workbook for which time is reported
+     * via {@link #phaseCompleted}.
+     */
+    enum Phase {
+        /**
+         * Creating cells and setting their values; reported once per
+         * workbook as the sum over all cells.
+         */
+        CELLS,
+
+        /**
+         * Creating rows, which includes flushing rows that fall out of
+         * the in-memory window into the temporary sheet file; reported once
+         * per workbook as the sum over all rows.
+         */
+        ROWS,
+
+        /**
+         * Assembling the final zip container from temporary files
+         * when the generator is closed.
+         */
+        WRITE,
+
+        /**
+         * Whole life-time of the writer, from creation to close; time
+         * not covered by other phases is mostly spent in data-binding
+         * (accessing bean properties).
+         */
+        TOTAL
+    }
+
+    default void rowWritten() { }
+
+    default void cellWritten(CellType type) { }
+
+    /**
+     * Called once the workbook has been written, with the number of bytes
+     * written to the output target.
+     */
+    default void bytesWritten(long bytes) { }
+
+    /**
+     * Called once the workbook has been written, with the highest estimated
+     * heap size retained by rows held in memory at any one time.
+     */
+    default void peakRetainedBytes(long bytes) { }
+
+    default void phaseCompleted(Phase phase, long nanos) { }
+}
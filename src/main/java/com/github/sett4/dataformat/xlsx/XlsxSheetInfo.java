@@ -0,0 +1,49 @@
+package com.github.sett4.dataformat.xlsx;
+
+/**
+ * Basic metadata of a single sheet, as returned by
+ * {@link XlsxFactory#probeSheets(java.io.File)}.
+ */
+public class XlsxSheetInfo {
+    private final String name;
+    private final int index;
+    private final int rowCount;
+    private final int columnCount;
+
+    public XlsxSheetInfo(String name, int index, int rowCount, int columnCount) {
+        this.name = name;
+        this.index = index;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 0-based position of sheet within workbook
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return Number of rows up to and including the last one used, header row included
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return Number of columns up to and including the last one used
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public String toString() {
+        return "[sheet '" + name + "' #" + index + ": " + rowCount + " rows, " + columnCount + " columns]";
+    }
+}
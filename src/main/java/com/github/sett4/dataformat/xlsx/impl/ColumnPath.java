@@ -0,0 +1,100 @@
+package com.github.sett4.dataformat.xlsx.impl;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Node of a tree built from dotted column names of a schema (like
+ * "address.city"), used for routing values of nested Objects to their
+ * flattened columns one property name at a time, without having to
+ * construct full column names while writing.
+ * <p>
+ * Root node covers the whole schema; its children are the column groups
+ * of root-level properties, which have no parent.
+ */
+public final class ColumnPath {
+    private static final ColumnPath EMPTY = new ColumnPath(null, null);
+
+    private final ColumnPath parent;
+
+    /**
+     * Full dotted name of this node; null for root
+     */
+    private final String path;
+
+    private Map<String, ColumnPath> children;
+
+    private int columnIndex = -1;
+
+    private ColumnPath(ColumnPath parent, String path) {
+        this.parent = parent;
+        this.path = path;
+    }
+
+    /**
+     * Builds column tree for given schema; only columns with dotted names
+     * are included.
+     */
+    public static ColumnPath forSchema(CsvSchema schema) {
+        ColumnPath root = null;
+        for (CsvSchema.Column column : schema) {
+            String name = column.getName();
+            if (name.indexOf('.') < 0) {
+                continue;
+            }
+            if (root == null) {
+                root = new ColumnPath(null, null);
+            }
+            ColumnPath node = root;
+            int start = 0;
+            for (int dot; (dot = name.indexOf('.', start)) >= 0; start = dot + 1) {
+                node = node._child(name.substring(start, dot), name.substring(0, dot));
+            }
+            ColumnPath leaf = node._child(name.substring(start), name);
+            if (leaf.columnIndex < 0) {
+                leaf.columnIndex = column.getIndex();
+            }
+        }
+        return (root == null) ? EMPTY : root;
+    }
+
+    /**
+     * @return Node for property with given name within this group, if any
+     */
+    public ColumnPath child(String name) {
+        return (children == null) ? null : children.get(name);
+    }
+
+    /**
+     * @return Enclosing column group, or null for groups of root-level properties
+     */
+    public ColumnPath getParent() {
+        return parent;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return Index of column this node maps to, or -1 if node is only a group
+     *   of other columns
+     */
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    private ColumnPath _child(String name, String childPath) {
+        if (children == null) {
+            children = new HashMap<>();
+        }
+        ColumnPath child = children.get(name);
+        if (child == null) {
+            child = new ColumnPath((path == null) ? null : this, childPath);
+            children.put(name, child);
+        }
+        return child;
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.sett4.dataformat.xlsx.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Handler for POI's streaming sheet reader that copies rows of a sheet
+ * into a CSV generator as they are read.
+ * <p>
+ * If schema has columns, first row of each sheet is taken to be its header,
+ * and only columns named in schema are copied, in schema order. Otherwise
+ * all cells are copied by position.
+ * <p>
+ * Since handler callbacks can not throw checked exceptions, write failures
+ * are thrown as {@link UncheckedIOException}s.
+ *
+ * @see ValueFormatter
+ */
+public class CsvSheetWriter implements XSSFSheetXMLHandler.SheetContentsHandler {
+    private final JsonGenerator gen;
+    private final CsvSchema schema;
+    private final boolean projected;
+
+    private String sheetName;
+
+    /**
+     * For projected output: output column index for each sheet column,
+     * or -1 for unmapped columns; resolved from header row of each sheet.
+     */
+    private int[] columnMapping;
+    private boolean inHeader;
+    private String[] headerNames = new String[16];
+
+    private String[] values;
+    private int valueCount;
+    private int lastColumn;
+
+    public CsvSheetWriter(JsonGenerator gen, CsvSchema schema) {
+        this.gen = gen;
+        this.schema = schema;
+        this.projected = schema.size() > 0;
+        this.values = new String[projected ? schema.size() : 16];
+    }
+
+    /**
+     * Method to call before each sheet is read.
+     */
+    public void startSheet(String name) {
+        sheetName = name;
+        inHeader = projected;
+        columnMapping = null;
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+        lastColumn = -1;
+        valueCount = 0;
+        Arrays.fill(inHeader ? headerNames : values, null);
+    }
+
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+        int col = (cellReference == null) ? lastColumn + 1 : new CellReference(cellReference).getCol();
+        lastColumn = col;
+        if (inHeader) {
+            if (col >= headerNames.length) {
+                headerNames = Arrays.copyOf(headerNames, Math.max(col + 1, headerNames.length * 2));
+            }
+            headerNames[col] = formattedValue;
+            return;
+        }
+        if (projected) {
+            if (col < columnMapping.length && columnMapping[col] >= 0) {
+                values[columnMapping[col]] = formattedValue;
+            }
+            return;
+        }
+        if (col >= values.length) {
+            values = Arrays.copyOf(values, Math.max(col + 1, values.length * 2));
+        }
+        values[col] = formattedValue;
+        valueCount = col + 1;
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+        if (inHeader) {
+            inHeader = false;
+            _resolveColumns();
+            return;
+        }
+        try {
+            int count = projected ? values.length : valueCount;
+            gen.writeStartArray();
+            for (int i = 0; i < count; ++i) {
+                String value = values[i];
+                // can not write nulls: CSV generator drops them from root-level rows
+                gen.writeString((value == null) ? "" : value);
+            }
+            gen.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void _resolveColumns() {
+        columnMapping = new int[lastColumn + 1];
+        Arrays.fill(columnMapping, -1);
+        boolean[] found = new boolean[schema.size()];
+        for (int i = 0; i < columnMapping.length; ++i) {
+            String name = headerNames[i];
+            if (name != null) {
+                CsvSchema.Column col = schema.column(name);
+                if (col != null) {
+                    columnMapping[i] = col.getIndex();
+                    found[col.getIndex()] = true;
+                }
+            }
+        }
+        for (int i = 0; i < found.length; ++i) {
+            if (!found[i]) {
+                throw new UncheckedIOException(new IOException("Sheet '" + sheetName
+                        + "' has no column '" + schema.column(i).getName() + "' in its header row"));
+            }
+        }
+    }
+
+    /**
+     * Formatter to use with this handler: numbers with "General" format are
+     * written with all their digits, as Excel's "General" display format
+     * would round them to 10 significant digits (or switch to exponent form);
+     * other formats (dates, percentages, currencies and so on) are applied
+     * as usual.
+     */
+    public static class ValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString,
+                                            boolean use1904Windowing) {
+            if ((formatIndex == 0 || "General".equalsIgnoreCase(formatString))
+                    && !Double.isNaN(value) && !Double.isInfinite(value)) {
+                return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.sett4.dataformat.xlsx.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.github.sett4.dataformat.xlsx.XlsxGenerator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serializer for root-level {@link Map} values (rows) that writes them using
+ * {@link XlsxGenerator#writeRow(Map, SerializerProvider)}, so that values are
+ * placed by column index in schema order instead of being written property by
+ * property. Keys and values not written directly still go through serializers
+ * of the given provider, so configuration of the writer in use applies.
+ * Wraps the default Map serializer, which is used for all other cases,
+ * including Maps that are property values.
+ */
+public class MapRowSerializer
+        extends StdSerializer<Map<?, ?>>
+        implements ContextualSerializer, ResolvableSerializer {
+    private static final long serialVersionUID = 1L;
+
+    protected final JsonSerializer<Object> _delegate;
+
+    @SuppressWarnings("unchecked")
+    public MapRowSerializer(JsonSerializer<?> delegate) {
+        super(Map.class, false);
+        _delegate = (JsonSerializer<Object>) delegate;
+    }
+
+    /**
+     * Modifier that wraps serializers of all Map types.
+     */
+    public static class Modifier extends BeanSerializerModifier {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public JsonSerializer<?> modifyMapSerializer(SerializationConfig config, MapType valueType,
+                                                     BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            return new MapRowSerializer(serializer);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property)
+            throws JsonMappingException {
+        JsonSerializer<?> ser = _delegate;
+        if (ser instanceof ContextualSerializer) {
+            ser = ((ContextualSerializer) ser).createContextual(prov, property);
+        }
+        // Map-valued properties are never rows
+        if (property != null) {
+            return ser;
+        }
+        return (ser == _delegate) ? this : new MapRowSerializer(ser);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (_delegate instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) _delegate).resolve(provider);
+        }
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Map<?, ?> value) {
+        return _delegate.isEmpty(provider, value);
+    }
+
+    @Override
+    public void serialize(Map<?, ?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (gen instanceof XlsxGenerator) {
+            XlsxGenerator xgen = (XlsxGenerator) gen;
+            if (xgen.canWriteRow() && xgen.getSchema() != null && xgen.getSchema().size() > 0) {
+                xgen.writeRow(value, provider);
+                return;
+            }
+        }
+        _delegate.serialize(value, gen, provider);
+    }
+
+    @Override
+    public void serializeWithType(Map<?, ?> value, JsonGenerator gen, SerializerProvider provider,
+                                  TypeSerializer typeSer) throws IOException {
+        _delegate.serializeWithType(value, gen, provider, typeSer);
+    }
+}
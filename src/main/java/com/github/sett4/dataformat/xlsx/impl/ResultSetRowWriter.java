@@ -0,0 +1,148 @@
+package com.github.sett4.dataformat.xlsx.impl;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Helper for copying rows of a JDBC {@link ResultSet} into {@link XlsxWriter}
+ * cells. Accessor to use for each column is resolved once from
+ * {@link ResultSetMetaData}, after which numeric and boolean values are read
+ * with primitive getters and written without boxing.
+ */
+public class ResultSetRowWriter {
+    private static final byte KIND_STRING = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_DOUBLE = 2;
+    private static final byte KIND_BOOLEAN = 3;
+    private static final byte KIND_DATE = 4;
+    private static final byte KIND_TIMESTAMP = 5;
+
+    private final byte[] kinds;
+
+    public ResultSetRowWriter(ResultSetMetaData metadata) throws SQLException {
+        kinds = new byte[metadata.getColumnCount()];
+        for (int i = 0; i < kinds.length; ++i) {
+            kinds[i] = _kind(metadata.getColumnType(i + 1));
+        }
+    }
+
+    /**
+     * Builds schema with one column per result set column, named by column label
+     * and typed by its SQL type.
+     */
+    public static CsvSchema schemaFor(ResultSetMetaData metadata) throws SQLException {
+        CsvSchema.Builder builder = CsvSchema.builder();
+        for (int i = 1, len = metadata.getColumnCount(); i <= len; ++i) {
+            CsvSchema.ColumnType type;
+            switch (_kind(metadata.getColumnType(i))) {
+            case KIND_LONG:
+            case KIND_DOUBLE:
+                type = CsvSchema.ColumnType.NUMBER;
+                break;
+            case KIND_BOOLEAN:
+                type = CsvSchema.ColumnType.BOOLEAN;
+                break;
+            default:
+                type = CsvSchema.ColumnType.STRING;
+            }
+            builder.addColumn(metadata.getColumnLabel(i), type);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes all remaining rows of given result set.
+     *
+     * @return Number of rows written
+     */
+    public long writeRows(ResultSet rs, XlsxWriter writer) throws IOException, SQLException {
+        final byte[] kinds = this.kinds;
+        long count = 0L;
+        while (rs.next()) {
+            // row of NULLs still takes its place
+            writer.startRow();
+            for (int i = 0; i < kinds.length; ++i) {
+                final int column = i + 1;
+                switch (kinds[i]) {
+                case KIND_LONG: {
+                    long v = rs.getLong(column);
+                    if (!rs.wasNull()) {
+                        writer.write(i, v);
+                    }
+                    break;
+                }
+                case KIND_DOUBLE: {
+                    double v = rs.getDouble(column);
+                    if (!rs.wasNull()) {
+                        writer.write(i, v);
+                    }
+                    break;
+                }
+                case KIND_BOOLEAN: {
+                    boolean v = rs.getBoolean(column);
+                    if (!rs.wasNull()) {
+                        writer.write(i, v);
+                    }
+                    break;
+                }
+                case KIND_DATE: {
+                    java.sql.Date v = rs.getDate(column);
+                    if (v != null) {
+                        writer.writeDate(i, v);
+                    }
+                    break;
+                }
+                case KIND_TIMESTAMP: {
+                    Timestamp v = rs.getTimestamp(column);
+                    if (v != null) {
+                        writer.writeDateTime(i, v);
+                    }
+                    break;
+                }
+                default: {
+                    String v = rs.getString(column);
+                    if (v != null) {
+                        writer.write(i, v);
+                    }
+                }
+                }
+            }
+            writer.endRow();
+            ++count;
+        }
+        return count;
+    }
+
+    private static byte _kind(int sqlType) {
+        switch (sqlType) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+            return KIND_LONG;
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE:
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+            // cells hold doubles in any case, so no point going through BigDecimal
+            return KIND_DOUBLE;
+        case Types.BIT:
+        case Types.BOOLEAN:
+            return KIND_BOOLEAN;
+        case Types.DATE:
+            return KIND_DATE;
+        case Types.TIMESTAMP:
+        case Types.TIMESTAMP_WITH_TIMEZONE:
+            return KIND_TIMESTAMP;
+        default:
+            return KIND_STRING;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.github.sett4.dataformat.xlsx.impl;
+
+import com.github.sett4.dataformat.xlsx.XlsxSheetInfo;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only view of an XLSX file, opened through POI's event API
+ * ({@link XSSFReader}), that resolves its sheets in workbook order.
+ * Sheet parts are only inflated when they are actually read.
+ */
+public class XlsxPackage implements Closeable {
+    private final File file;
+    private final OPCPackage pkg;
+    private final XSSFReader reader;
+
+    /**
+     * Callback for {@link #readSheets}.
+     */
+    public interface SheetHandler {
+        void sheet(String name, int index, InputStream in) throws IOException, SAXException;
+    }
+
+    public XlsxPackage(File file) throws IOException {
+        this.file = file;
+        try {
+            this.pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Not a valid XLSX file '" + file + "': " + e.getMessage(), e);
+        }
+        try {
+            this.reader = new XSSFReader(pkg);
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        } catch (OpenXML4JException e) {
+            pkg.revert();
+            throw _failure(e);
+        }
+    }
+
+    public OPCPackage getPackage() {
+        return pkg;
+    }
+
+    public XSSFReader getReader() {
+        return reader;
+    }
+
+    public List<String> getSheetNames() throws IOException {
+        final List<String> names = new ArrayList<>();
+        readSheets(null, (name, index, in) -> names.add(name));
+        return names;
+    }
+
+    /**
+     * Determines extent of all sheets, in workbook order.
+     */
+    public List<XlsxSheetInfo> probeSheets() throws IOException {
+        final XMLInputFactory xmlInputFactory = XMLHelper.newXMLInputFactory();
+        final List<XlsxSheetInfo> result = new ArrayList<>();
+        readSheets(null, (name, index, in) -> result.add(_probeSheet(xmlInputFactory, name, index, in)));
+        return result;
+    }
+
+    /**
+     * Passes content of sheets to given handler, in workbook order.
+     *
+     * @param names Names of sheets to read; if null or empty, all sheets are read
+     *
+     * @throws IOException If a named sheet does not exist in the workbook
+     */
+    public void readSheets(List<String> names, SheetHandler handler) throws IOException {
+        final boolean all = (names == null) || names.isEmpty();
+        if (!all) {
+            // check names first, so that nothing gets read for a bad request
+            Set<String> missing = new LinkedHashSet<>(names);
+            missing.removeAll(getSheetNames());
+            if (!missing.isEmpty()) {
+                throw new IOException("No sheet named '" + missing.iterator().next()
+                        + "' in XLSX file '" + file + "'");
+            }
+        }
+        try {
+            XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int index = 0; it.hasNext(); ++index) {
+                try (InputStream in = it.next()) {
+                    String name = it.getSheetName();
+                    if (all || names.contains(name)) {
+                        handler.sheet(name, index, in);
+                    }
+                }
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw _failure(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // read-only package: nothing to save
+        pkg.revert();
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * Determines extent of a sheet. The <code>&lt;dimension&gt;</code> element is
+     * used if it covers more than a single cell; otherwise (some writers, SXSSF
+     * included, always write "A1") row and cell references are scanned, which
+     * still avoids decoding any cell values.
+     */
+    private static XlsxSheetInfo _probeSheet(XMLInputFactory xmlInputFactory,
+                                             String name, int index, InputStream in) throws IOException {
+        int rows = 0;
+        int columns = 0;
+        boolean inSheetData = false;
+        try {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String elem = xml.getLocalName();
+                    if (inSheetData) {
+                        if ("row".equals(elem)) {
+                            String r = xml.getAttributeValue(null, "r");
+                            rows = (r == null) ? rows + 1 : Math.max(rows, Integer.parseInt(r));
+                        } else if ("c".equals(elem)) {
+                            String r = xml.getAttributeValue(null, "r");
+                            if (r != null) {
+                                columns = Math.max(columns, _columnNumber(r));
+                            }
+                        }
+                    } else if ("dimension".equals(elem)) {
+                        String ref = xml.getAttributeValue(null, "ref");
+                        int colon = (ref == null) ? -1 : ref.indexOf(':');
+                        if (colon > 0) {
+                            String last = ref.substring(colon + 1);
+                            return new XlsxSheetInfo(name, index, _rowNumber(last), _columnNumber(last));
+                        }
+                    } else if ("sheetData".equals(elem)) {
+                        inSheetData = true;
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Failed to read XLSX content: " + e.getMessage(), e);
+        }
+        return new XlsxSheetInfo(name, index, rows, columns);
+    }
+
+    /**
+     * @return 1-based column number of a cell reference like "AB12"
+     */
+    private static int _columnNumber(String ref) {
+        int col = 0;
+        for (int i = 0, len = ref.length(); i < len; ++i) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col;
+    }
+
+    /**
+     * @return 1-based row number of a cell reference like "AB12"
+     */
+    private static int _rowNumber(String ref) {
+        int i = 0;
+        while (i < ref.length() && !Character.isDigit(ref.charAt(i))) {
+            ++i;
+        }
+        return Integer.parseInt(ref.substring(i));
+    }
+
+    private IOException _failure(Exception e) {
+        return new IOException("Failed to read XLSX file '" + file + "': " + e.getMessage(), e);
+    }
+}
@@ -1,98 +1,431 @@
 package com.github.sett4.dataformat.xlsx.impl;
 
+import com.github.sett4.dataformat.xlsx.XlsxMetrics;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Date;
 import java.util.logging.Logger;
 
 public class XlsxWriter {
-    Logger log = Logger.getLogger(XlsxWriter.class.getCanonicalName());
+    private static final Logger log = Logger.getLogger(XlsxWriter.class.getCanonicalName());
+
+    /*
+     * Rough per-object heap costs used for estimating retained bytes;
+     * cell cost includes its slot in the row's cell map.
+     */
+    private static final int ROW_OVERHEAD = 80;
+    private static final int CELL_OVERHEAD = 96;
+    private static final int STRING_OVERHEAD = 40;
 
     private final OutputStream out;
     private final SXSSFWorkbook workbook;
-    private final Sheet sheet;
+    private final SXSSFSheet sheet;
+    private final XlsxMetrics metrics;
+
+    /**
+     * Upper limit for estimated heap retained by rows not yet flushed
+     * to the temporary sheet file; 0 or less for no limit.
+     */
+    private final long maxRetainedBytes;
+
+    /**
+     * Estimated sizes of completed rows still held in the SXSSF row
+     * window, as a ring buffer in row order.
+     */
+    private final long[] windowRowBytes;
+    private int windowStart;
+    private int windowRows;
+    private long retainedBytes;
+    private long currentRowBytes;
+    private long peakRetainedBytes;
+
+    /**
+     * Set once the retained size limit has been exceeded; content is
+     * incomplete from then on and must not be written out.
+     */
+    private boolean limitExceeded;
+
+    /**
+     * Whether time spent in phases is to be measured; only if
+     * non-default metrics are used.
+     */
+    private final boolean timed;
+    private final long startTime;
+    private long cellNanos;
+    private long rowNanos;
+
+    /**
+     * Styles for date and date-time cells; created on first use
+     */
+    private CellStyle dateStyle;
+    private CellStyle dateTimeStyle;
 
     private Row row = null;
     private int rowIndex = -1;
+
+    /**
+     * Whether current row has been started even if it has no cells yet,
+     * so that it keeps its place once ended.
+     */
+    private boolean rowPending;
     private int _nextColumnToWrite = 0;
 
     public XlsxWriter(OutputStream out) {
+        this(out, XlsxMetrics.NOP);
+    }
+
+    public XlsxWriter(OutputStream out, XlsxMetrics metrics) {
+        this(out, metrics, 0L);
+    }
+
+    public XlsxWriter(OutputStream out, XlsxMetrics metrics, long maxRetainedBytes) {
         this.out = out;
+        this.metrics = metrics;
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.timed = (metrics != XlsxMetrics.NOP);
+        this.startTime = timed ? System.nanoTime() : 0L;
         this.workbook = new SXSSFWorkbook();
         this.sheet = workbook.createSheet();
+        this.windowRowBytes = new long[SXSSFWorkbook.DEFAULT_WINDOW_SIZE];
     }
 
-    public Row getRow() {
+    public Row getRow() throws IOException {
         if (row == null) {
+            _retain(ROW_OVERHEAD);
             rowIndex++;
-            row = sheet.createRow(rowIndex);
+            if (timed) {
+                long start = System.nanoTime();
+                row = sheet.createRow(rowIndex);
+                rowNanos += System.nanoTime() - start;
+            } else {
+                row = sheet.createRow(rowIndex);
+            }
+            metrics.rowWritten();
             _nextColumnToWrite = 0;
         }
 
         return row;
     }
 
-    public void write(int columnIndex, String text) {
+    public void write(int columnIndex, String text) throws IOException {
+        long start = _startCell();
+        _retain(STRING_OVERHEAD + 2L * text.length());
         createCell(columnIndex, CellType.STRING).setCellValue(text);
+        _cellDone(start);
     }
 
-    public void write(int columnIndex, boolean state) {
+    public void write(int columnIndex, boolean state) throws IOException {
+        long start = _startCell();
         createCell(columnIndex, CellType.BOOLEAN).setCellValue(state);
+        _cellDone(start);
+    }
+
+    /**
+     * Marks start of a row, so that it is kept (as an empty row) even if
+     * no cells get written before {@link #endRow}. Not needed if row is
+     * known to have cells.
+     */
+    public void startRow() {
+        rowPending = true;
     }
 
-    public void endRow() {
+    /**
+     * Ends current row; does nothing if no row was started, either by
+     * writing cells or null values, or by {@link #startRow}.
+     */
+    public void endRow() throws IOException {
+        if (row != null) {
+            _completeRow();
+        } else if (rowPending) {
+            // row without any cells: keep its place so that following rows stay aligned
+            ++rowIndex;
+        }
         row = null;
+        rowPending = false;
         _nextColumnToWrite = 0;
     }
 
     public void close() throws IOException {
-        workbook.write(out);
+        try {
+            if (!limitExceeded) {
+                _writeWorkbook();
+            }
+        } finally {
+            // remove temporary sheet files
+            workbook.dispose();
+        }
     }
 
-    public void writeColumnName(String name, int index) {
-        getRow().createCell(index).setCellValue(name);
+    /**
+     * Estimated heap retained by rows not yet flushed to the temporary
+     * sheet file, including the row being written.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes + currentRowBytes;
+    }
+
+    private void _writeWorkbook() throws IOException {
+        if (!timed) {
+            workbook.write(out);
+            return;
+        }
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream(out);
+        workbook.write(counter);
+        long end = System.nanoTime();
+        metrics.bytesWritten(counter.count);
+        metrics.peakRetainedBytes(peakRetainedBytes);
+        metrics.phaseCompleted(XlsxMetrics.Phase.CELLS, cellNanos);
+        metrics.phaseCompleted(XlsxMetrics.Phase.ROWS, rowNanos);
+        metrics.phaseCompleted(XlsxMetrics.Phase.WRITE, end - start);
+        metrics.phaseCompleted(XlsxMetrics.Phase.TOTAL, end - startTime);
+    }
+
+    public void writeColumnName(String name, int index) throws IOException {
+        long start = _startCell();
+        _retain(STRING_OVERHEAD + 2L * name.length());
+        createCell(index, CellType.STRING).setCellValue(name);
+        _cellDone(start);
+    }
+
+    /**
+     * Writes a date as numeric cell formatted as date (without time).
+     */
+    public void writeDate(int columnIndex, Date value) throws IOException {
+        long start = _startCell();
+        if (dateStyle == null) {
+            dateStyle = _createDateStyle("yyyy-mm-dd");
+        }
+        Cell cell = createCell(columnIndex, CellType.NUMERIC);
+        cell.setCellValue(value);
+        cell.setCellStyle(dateStyle);
+        _cellDone(start);
+    }
+
+    /**
+     * Writes a timestamp as numeric cell formatted as date and time.
+     */
+    public void writeDateTime(int columnIndex, Date value) throws IOException {
+        long start = _startCell();
+        if (dateTimeStyle == null) {
+            dateTimeStyle = _createDateStyle("yyyy-mm-dd hh:mm:ss");
+        }
+        Cell cell = createCell(columnIndex, CellType.NUMERIC);
+        cell.setCellValue(value);
+        cell.setCellStyle(dateTimeStyle);
+        _cellDone(start);
+    }
+
+    private CellStyle _createDateStyle(String format) {
+        CellStyle style = workbook.createCellStyle();
+        style.setDataFormat(workbook.createDataFormat().getFormat(format));
+        return style;
     }
 
     public void writeNull(int columnIndex) {
+    	rowPending = true;
     	if (columnIndex == _nextColumnToWrite) {
     		++_nextColumnToWrite;
     	}
     }
 
-    public void write(int columnIndex, float v) {
+    public void write(int columnIndex, float v) throws IOException {
+        long start = _startCell();
         createCell(columnIndex, CellType.NUMERIC).setCellValue(v);
+        _cellDone(start);
     }
 
-    public void write(int columnIndex, double v) {
+    public void write(int columnIndex, double v) throws IOException {
+        long start = _startCell();
         createCell(columnIndex, CellType.NUMERIC).setCellValue(v);
+        _cellDone(start);
     }
 
-    public void write(int columnIndex, int v) {
+    public void write(int columnIndex, int v) throws IOException {
+        long start = _startCell();
         createCell(columnIndex, CellType.NUMERIC).setCellValue(v);
+        _cellDone(start);
     }
 
-    public void write(int columnIndex, long v) {
+    public void write(int columnIndex, long v) throws IOException {
+        long start = _startCell();
         createCell(columnIndex, CellType.NUMERIC).setCellValue(v);
+        _cellDone(start);
+    }
+
+    /**
+     * Writes rows <code>from</code> (inclusive) to <code>to</code> (exclusive) out of
+     * given columns, each one of which is an array of <code>double</code>,
+     * <code>long</code>, <code>int</code>, <code>boolean</code> or <code>String</code>;
+     * other arrays of Objects are written using value's <code>toString()</code>.
+     * Primitive values are written without boxing; <code>null</code> Strings
+     * produce empty cells.
+     */
+    public void writeColumns(Object[] columns, int from, int to) throws IOException {
+        final int columnCount = columns.length;
+        final byte[] kinds = new byte[columnCount];
+        for (int c = 0; c < columnCount; ++c) {
+            kinds[c] = _columnKind(columns[c]);
+        }
+        for (int r = from; r < to; ++r) {
+            startRow();
+            for (int c = 0; c < columnCount; ++c) {
+                switch (kinds[c]) {
+                case KIND_DOUBLE:
+                    write(c, ((double[]) columns[c])[r]);
+                    break;
+                case KIND_LONG:
+                    write(c, ((long[]) columns[c])[r]);
+                    break;
+                case KIND_INT:
+                    write(c, ((int[]) columns[c])[r]);
+                    break;
+                case KIND_BOOLEAN:
+                    write(c, ((boolean[]) columns[c])[r]);
+                    break;
+                default:
+                    Object value = ((Object[]) columns[c])[r];
+                    if (value != null) {
+                        write(c, value.toString());
+                    }
+                }
+            }
+            endRow();
+        }
+    }
+
+    private static final byte KIND_OBJECT = 0;
+    private static final byte KIND_DOUBLE = 1;
+    private static final byte KIND_LONG = 2;
+    private static final byte KIND_INT = 3;
+    private static final byte KIND_BOOLEAN = 4;
+
+    private static byte _columnKind(Object column) {
+        if (column instanceof double[]) {
+            return KIND_DOUBLE;
+        }
+        if (column instanceof long[]) {
+            return KIND_LONG;
+        }
+        if (column instanceof int[]) {
+            return KIND_INT;
+        }
+        if (column instanceof boolean[]) {
+            return KIND_BOOLEAN;
+        }
+        if (column instanceof Object[]) {
+            return KIND_OBJECT;
+        }
+        throw new IllegalArgumentException("Unsupported column type "
+                + ((column == null) ? "null" : column.getClass().getName()));
     }
 
     public Object getOutputTarget() {
         return out;
     }
     
-    private Cell createCell(int columnIndex, CellType type) {
+    private Cell createCell(int columnIndex, CellType type) throws IOException {
+    	_retain(CELL_OVERHEAD);
     	Cell cell = getRow().createCell(columnIndex, type);
     	if (columnIndex == _nextColumnToWrite) {
     		++_nextColumnToWrite;
     	}
+    	metrics.cellWritten(type);
     	return cell;
     }
+
+    /**
+     * Adds given estimated cost to the row being written; fails if that
+     * row alone no longer fits within the configured limit, as flushing
+     * can not help there.
+     */
+    private void _retain(long bytes) throws IOException {
+        currentRowBytes += bytes;
+        if (maxRetainedBytes > 0L && currentRowBytes > maxRetainedBytes) {
+            // row is not created yet if this is its first cell (or the row itself)
+            int index = rowIndex + ((row == null) ? 1 : 0);
+            limitExceeded = true;
+            throw new IOException("Row " + index + " exceeds maximum retained size for XLSX output ("
+                    + maxRetainedBytes + " bytes): estimated " + currentRowBytes + " bytes");
+        }
+    }
+
+    private void _completeRow() throws IOException {
+        long bytes = currentRowBytes;
+        currentRowBytes = 0L;
+        // SXSSF flushes the oldest row once window is full, so do the same here
+        int capacity = windowRowBytes.length;
+        if (windowRows == capacity) {
+            retainedBytes -= windowRowBytes[windowStart];
+            windowStart = (windowStart + 1) % capacity;
+            --windowRows;
+        }
+        windowRowBytes[(windowStart + windowRows) % capacity] = bytes;
+        ++windowRows;
+        retainedBytes += bytes;
+        if (retainedBytes > peakRetainedBytes) {
+            peakRetainedBytes = retainedBytes;
+        }
+        if (maxRetainedBytes > 0L && retainedBytes > maxRetainedBytes) {
+            log.fine("flushing rows early, retained bytes over limit");
+            if (timed) {
+                long start = System.nanoTime();
+                sheet.flushRows();
+                rowNanos += System.nanoTime() - start;
+            } else {
+                sheet.flushRows();
+            }
+            windowRows = 0;
+            windowStart = 0;
+            retainedBytes = 0L;
+        }
+    }
+
+    /**
+     * Makes sure the current row exists before cell timing starts, so that
+     * time spent creating rows (and flushing the row window) is only
+     * counted for {@link XlsxMetrics.Phase#ROWS}.
+     */
+    private long _startCell() throws IOException {
+        getRow();
+        return timed ? System.nanoTime() : 0L;
+    }
+
+    private void _cellDone(long start) {
+        if (timed) {
+            cellNanos += System.nanoTime() - start;
+        }
+    }
     
     public int nextColumnIndex() {
         return _nextColumnToWrite;
     }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
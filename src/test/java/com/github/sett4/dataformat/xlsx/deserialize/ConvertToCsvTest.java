@@ -0,0 +1,102 @@
+package com.github.sett4.dataformat.xlsx.deserialize;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+
+public class ConvertToCsvTest extends ModuleTestBase {
+
+    private File _createWorkbook() throws Exception {
+        File file = File.createTempFile("jackson-xlsx-test", ".xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            for (String name : new String[]{"jan", "feb"}) {
+                Sheet sheet = workbook.createSheet(name);
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue("id");
+                header.createCell(1).setCellValue("unused");
+                header.createCell(2).setCellValue("amount");
+                Row row = sheet.createRow(1);
+                row.createCell(0).setCellValue(name + "-1");
+                row.createCell(1).setCellValue("x");
+                row.createCell(2).setCellValue(12);
+            }
+            try (OutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testProjectedColumns() throws Exception {
+        File file = _createWorkbook();
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("amount")
+                .addColumn("id")
+                .setUseHeader(true)
+                .build();
+        StringWriter out = new StringWriter();
+        new XlsxMapper().convertToCsv(file, schema, out);
+        assertEquals("amount,id\n12,jan-1\n12,feb-1\n", out.toString());
+
+        out = new StringWriter();
+        new XlsxMapper().convertToCsv(file, schema.withoutHeader(), out, "feb");
+        assertEquals("12,feb-1\n", out.toString());
+
+        file.delete();
+    }
+
+    @Test
+    public void testAllColumns() throws Exception {
+        File file = _createWorkbook();
+        StringWriter out = new StringWriter();
+        new XlsxMapper().convertToCsv(file, CsvSchema.emptySchema(), out, "jan");
+        assertEquals("id,unused,amount\njan-1,x,12\n", out.toString());
+
+        file.delete();
+    }
+
+    @Test
+    public void testGeneralNumbersNotRounded() throws Exception {
+        File file = File.createTempFile("jackson-xlsx-test", ".xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row row = workbook.createSheet("numbers").createRow(0);
+            row.createCell(0).setCellValue(123456789012L);
+            row.createCell(1).setCellValue(0.123456789012345);
+            row.createCell(2).setCellValue(-2.5);
+            try (OutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        StringWriter out = new StringWriter();
+        new XlsxMapper().convertToCsv(file, CsvSchema.emptySchema(), out);
+        assertEquals("123456789012,0.123456789012345,-2.5\n", out.toString());
+
+        file.delete();
+    }
+
+    @Test
+    public void testMissingSheet() throws Exception {
+        File file = _createWorkbook();
+        StringWriter out = new StringWriter();
+        try {
+            new XlsxMapper().convertToCsv(file, CsvSchema.emptySchema(), out, "jan", "mar");
+            fail("Should not pass");
+        } catch (IOException e) {
+            verifyException(e, "No sheet named 'mar'");
+        }
+        assertEquals("", out.toString());
+
+        file.delete();
+    }
+}
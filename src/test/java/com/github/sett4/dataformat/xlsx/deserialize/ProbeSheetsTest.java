@@ -0,0 +1,72 @@
+package com.github.sett4.dataformat.xlsx.deserialize;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import com.github.sett4.dataformat.xlsx.XlsxSheetInfo;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+public class ProbeSheetsTest extends ModuleTestBase {
+
+    @Test
+    public void testProbeStreamedOutput() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = mapper.schemaFor(IdDesc.class).withHeader();
+        File file = File.createTempFile("jackson-xlsx-test", ".xlsx");
+        try (OutputStream out = new FileOutputStream(file)) {
+            try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+                w.writeAll(Arrays.asList(new IdDesc("1", "a"), new IdDesc("2", "b")));
+            }
+        }
+
+        List<XlsxSheetInfo> sheets = mapper.getFactory().probeSheets(file);
+        assertEquals(1, sheets.size());
+        assertEquals(0, sheets.get(0).getIndex());
+        assertEquals(3, sheets.get(0).getRowCount());
+        assertEquals(2, sheets.get(0).getColumnCount());
+
+        file.delete();
+    }
+
+    @Test
+    public void testProbeMultipleSheets() throws Exception {
+        File file = File.createTempFile("jackson-xlsx-test", ".xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet first = workbook.createSheet("first");
+            for (int i = 0; i < 10; ++i) {
+                Row row = first.createRow(i);
+                for (int j = 0; j < 4; ++j) {
+                    row.createCell(j).setCellValue(i * j);
+                }
+            }
+            workbook.createSheet("second").createRow(4).createCell(6).setCellValue("x");
+            try (OutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+
+        XlsxMapper mapper = new XlsxMapper();
+        assertEquals(Arrays.asList("first", "second"), mapper.getFactory().sheetNames(file));
+
+        List<XlsxSheetInfo> sheets = mapper.getFactory().probeSheets(file);
+        assertEquals(2, sheets.size());
+        assertEquals("first", sheets.get(0).getName());
+        assertEquals(10, sheets.get(0).getRowCount());
+        assertEquals(4, sheets.get(0).getColumnCount());
+        assertEquals("second", sheets.get(1).getName());
+        assertEquals(5, sheets.get(1).getRowCount());
+        assertEquals(7, sheets.get(1).getColumnCount());
+
+        file.delete();
+    }
+}
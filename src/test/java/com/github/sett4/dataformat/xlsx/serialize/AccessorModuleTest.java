@@ -0,0 +1,23 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class AccessorModuleTest extends ModuleTestBase {
+
+    // neither Blackbird nor Afterburner is a test dependency
+    @Test
+    public void testNoModuleAvailable() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        Set<Object> registered = new HashSet<>(mapper.getRegisteredModuleIds());
+        assertFalse(mapper.findAndRegisterAccessorModule());
+        assertEquals(registered, mapper.getRegisteredModuleIds());
+
+        mapper = XlsxMapper.builder().findAndAddAccessorModule().build();
+        assertEquals(registered, mapper.getRegisteredModuleIds());
+    }
+}
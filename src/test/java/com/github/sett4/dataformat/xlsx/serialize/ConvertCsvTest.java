@@ -0,0 +1,93 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+public class ConvertCsvTest extends ModuleTestBase {
+
+    @Test
+    public void testConvertWithHeader() throws Exception {
+        String csv = "id,amount,zip\n"
+                + "a,12,00123\n"
+                + "b,,2.5e3\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxMapper().convertCsv(new StringReader(csv), CsvSchema.emptySchema().withHeader(), out);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("id", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("zip", sheet.getRow(0).getCell(2).getStringCellValue());
+        assertEquals("a", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals(CellType.NUMERIC, sheet.getRow(1).getCell(1).getCellType());
+        assertEquals(12.0, sheet.getRow(1).getCell(1).getNumericCellValue());
+        assertEquals(CellType.STRING, sheet.getRow(1).getCell(2).getCellType());
+        assertEquals("00123", sheet.getRow(1).getCell(2).getStringCellValue());
+        assertNull(sheet.getRow(2).getCell(1));
+        assertEquals(2500.0, sheet.getRow(2).getCell(2).getNumericCellValue());
+        workbook.close();
+    }
+
+    @Test
+    public void testLongNumbersKeptAsStrings() throws Exception {
+        String csv = "1234567890123456,123456789012345,0.1234567890123456,1.5e300\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxMapper().convertCsv(new StringReader(csv), CsvSchema.emptySchema(), out);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(CellType.STRING, sheet.getRow(0).getCell(0).getCellType());
+        assertEquals("1234567890123456", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals(CellType.NUMERIC, sheet.getRow(0).getCell(1).getCellType());
+        assertEquals(123456789012345.0, sheet.getRow(0).getCell(1).getNumericCellValue());
+        assertEquals(CellType.STRING, sheet.getRow(0).getCell(2).getCellType());
+        assertEquals(CellType.NUMERIC, sheet.getRow(0).getCell(3).getCellType());
+        workbook.close();
+    }
+
+    @Test
+    public void testConvertTypedColumns() throws Exception {
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("code", CsvSchema.ColumnType.STRING)
+                .addColumn("flag", CsvSchema.ColumnType.BOOLEAN)
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxMapper().convertCsv(new StringReader("42,true\n"), schema, out);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(CellType.STRING, sheet.getRow(0).getCell(0).getCellType());
+        assertEquals("42", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals(CellType.BOOLEAN, sheet.getRow(0).getCell(1).getCellType());
+        assertTrue(sheet.getRow(0).getCell(1).getBooleanCellValue());
+        workbook.close();
+    }
+
+    @Test
+    public void testSourceNotClosed() throws Exception {
+        final boolean[] closed = new boolean[1];
+        Reader csv = new FilterReader(new StringReader("a,1\n")) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxMapper().convertCsv(csv, CsvSchema.emptySchema(), out);
+        assertFalse(closed[0]);
+        assertTrue(out.size() > 0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxFactory;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import com.github.sett4.dataformat.xlsx.XlsxMetrics;
+import org.apache.poi.ss.usermodel.CellType;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class MetricsTest extends ModuleTestBase {
+
+    static class CountingMetrics implements XlsxMetrics {
+        int rows;
+        Map<CellType, Integer> cells = new EnumMap<>(CellType.class);
+        long bytes;
+        Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+
+        @Override
+        public void rowWritten() {
+            ++rows;
+        }
+
+        @Override
+        public void cellWritten(CellType type) {
+            cells.merge(type, 1, Integer::sum);
+        }
+
+        @Override
+        public void bytesWritten(long bytes) {
+            this.bytes += bytes;
+        }
+
+        @Override
+        public void phaseCompleted(Phase phase, long nanos) {
+            phases.put(phase, nanos);
+        }
+    }
+
+    @Test
+    public void testCounts() throws Exception {
+        CountingMetrics metrics = new CountingMetrics();
+        XlsxMapper mapper = new XlsxMapper(new XlsxFactory().setMetrics(metrics));
+        CsvSchema schema = mapper.schemaFor(IdDesc.class).withHeader();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+            w.writeAll(Arrays.asList(new IdDesc("1", "a"), new IdDesc("2", "b")));
+        }
+
+        assertEquals(3, metrics.rows);
+        assertEquals(Integer.valueOf(6), metrics.cells.get(CellType.STRING));
+        assertEquals(out.size(), metrics.bytes);
+        assertEquals(4, metrics.phases.size());
+        assertTrue(metrics.phases.get(XlsxMetrics.Phase.TOTAL) >= metrics.phases.get(XlsxMetrics.Phase.WRITE));
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.junit.Test;
+
+// records themselves can not be declared here, as tests are compiled for Java 8
+public class RecordOrderTest extends ModuleTestBase {
+
+    protected static class Point {
+        public int y;
+        public int x;
+        public String label;
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        assertFalse(mapper.isRecordComponentOrder());
+        assertTrue(XlsxMapper.builder().recordComponentOrder(true).build().isRecordComponentOrder());
+    }
+
+    @Test
+    public void testNonRecordsUnchanged() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema before = mapper.schemaFor(Point.class);
+        mapper.setRecordComponentOrder(true);
+        CsvSchema after = mapper.schemaFor(Point.class);
+
+        assertEquals(3, after.size());
+        assertEquals("label", after.columnName(0));
+        assertEquals("x", after.columnName(1));
+        assertEquals("y", after.columnName(2));
+        assertEquals(before.getColumnDesc(), after.getColumnDesc());
+    }
+}
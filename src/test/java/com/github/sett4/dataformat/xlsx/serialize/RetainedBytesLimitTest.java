@@ -0,0 +1,76 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxFactory;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RetainedBytesLimitTest extends ModuleTestBase {
+
+    @Test
+    public void testFlushesEarly() throws Exception {
+        XlsxMapper mapper = new XlsxMapper(new XlsxFactory().setMaxRetainedBytes(4096));
+        CsvSchema schema = mapper.schemaFor(IdDesc.class);
+
+        List<IdDesc> rows = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            rows.add(new IdDesc(String.valueOf(i), "row " + i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+            w.writeAll(rows);
+        }
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(499, sheet.getLastRowNum());
+        assertEquals("row 499", sheet.getRow(499).getCell(1).getStringCellValue());
+        workbook.close();
+    }
+
+    @Test
+    public void testFailsForOversizedRow() throws Exception {
+        XlsxMapper mapper = new XlsxMapper(new XlsxFactory().setMaxRetainedBytes(1024));
+        CsvSchema schema = mapper.schemaFor(IdDesc.class);
+        String huge = String.join("", Collections.nCopies(2000, "x"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+                w.writeAll(Collections.singletonList(new IdDesc("1", huge)));
+            }
+            fail("Should not pass");
+        } catch (IOException e) {
+            verifyException(e, "exceeds maximum retained size");
+        }
+        // incomplete workbook must not be written
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void testFailsForOversizedFirstCell() throws Exception {
+        XlsxMapper mapper = new XlsxMapper(new XlsxFactory().setMaxRetainedBytes(1024));
+        CsvSchema schema = mapper.schemaFor(IdDesc.class);
+        String huge = String.join("", Collections.nCopies(2000, "x"));
+        try {
+            try (SequenceWriter w = mapper.writer(schema).writeValues(new ByteArrayOutputStream())) {
+                w.writeAll(Arrays.asList(new IdDesc("1", "a"), new IdDesc(huge, "b")));
+            }
+            fail("Should not pass");
+        } catch (IOException e) {
+            verifyException(e, "Row 1 exceeds maximum retained size");
+        }
+    }
+}
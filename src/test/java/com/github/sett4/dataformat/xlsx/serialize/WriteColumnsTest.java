@@ -0,0 +1,70 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class WriteColumnsTest extends ModuleTestBase {
+
+    @Test
+    public void testPrimitiveColumns() throws Exception {
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("name")
+                .addColumn("count")
+                .addColumn("ratio")
+                .setUseHeader(true)
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxMapper().writeColumns(out, schema, Arrays.asList(
+                new String[]{"a", null, "c"},
+                new long[]{1L, 2L, 3L},
+                new double[]{0.5, 1.5, 2.5}));
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("ratio", sheet.getRow(0).getCell(2).getStringCellValue());
+        assertEquals("a", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals(CellType.NUMERIC, sheet.getRow(1).getCell(1).getCellType());
+        assertEquals(1.0, sheet.getRow(1).getCell(1).getNumericCellValue());
+        assertNull(sheet.getRow(2).getCell(0));
+        assertEquals(2.5, sheet.getRow(3).getCell(2).getNumericCellValue());
+        assertEquals(3, sheet.getLastRowNum());
+        workbook.close();
+    }
+
+    @Test
+    public void testMismatchedLengths() throws Exception {
+        try {
+            new XlsxMapper().writeColumns(new ByteArrayOutputStream(), CsvSchema.emptySchema(),
+                    Arrays.asList(new long[]{1L, 2L}, new double[]{0.5}));
+            fail("Should not pass");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "same length");
+        }
+    }
+
+    @Test
+    public void testSingleObjectColumnWithNulls() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxMapper().writeColumns(out, CsvSchema.emptySchema(),
+                Collections.singletonList(new String[]{"a", null, "c"}));
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("a", sheet.getRow(0).getCell(0).getStringCellValue());
+        // row with only nulls is still there, leaving following rows in place
+        assertNull(sheet.getRow(1));
+        assertEquals("c", sheet.getRow(2).getCell(0).getStringCellValue());
+        workbook.close();
+    }
+}
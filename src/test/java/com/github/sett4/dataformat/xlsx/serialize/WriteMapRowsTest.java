@@ -0,0 +1,172 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class WriteMapRowsTest extends ModuleTestBase {
+
+    @Test
+    public void testMapRowsInColumnOrder() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("id")
+                .addColumn("gender")
+                .addColumn("amount")
+                .setUseHeader(true)
+                .build();
+
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("amount", 1.5);
+        first.put("gender", Gender.MALE);
+        first.put("id", "a");
+        Map<String, Object> second = new HashMap<>();
+        second.put("id", "b");
+        second.put("amount", 7);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+            w.write(first);
+            w.write(second);
+        }
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("id", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("a", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals("MALE", sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals(1.5, sheet.getRow(1).getCell(2).getNumericCellValue());
+        assertEquals("b", sheet.getRow(2).getCell(0).getStringCellValue());
+        assertNull(sheet.getRow(2).getCell(1));
+        assertEquals(CellType.NUMERIC, sheet.getRow(2).getCell(2).getCellType());
+        assertEquals(7.0, sheet.getRow(2).getCell(2).getNumericCellValue());
+        workbook.close();
+    }
+
+    @Test
+    public void testUnknownKey() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder().addColumn("id").build();
+        Map<String, Object> row = new HashMap<>();
+        row.put("bogus", "x");
+        try {
+            mapper.writer(schema).writeValue(new ByteArrayOutputStream(), row);
+            fail("Should not pass");
+        } catch (Exception e) {
+            verifyException(e, "Unrecognized column 'bogus'");
+        }
+    }
+
+    enum RowKey {
+        @JsonProperty("id") ID,
+        @JsonProperty("when") WHEN;
+
+        @Override
+        public String toString() {
+            return "key-" + name();
+        }
+    }
+
+    @Test
+    public void testListValueJoined() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("id")
+                .addColumn("tags")
+                .setArrayElementSeparator(";")
+                .build();
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("tags", Arrays.asList("x", "y"));
+        first.put("id", "a");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("id", "b");
+        second.put("tags", new String[]{"z"});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+            w.write(first);
+            w.write(second);
+        }
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("a", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("x;y", sheet.getRow(0).getCell(1).getStringCellValue());
+        assertEquals("b", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals("z", sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals(1, sheet.getLastRowNum());
+        workbook.close();
+    }
+
+    @Test
+    public void testPojoValueFails() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder().addColumn("id").addColumn("value").build();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", "a");
+        row.put("value", new IdDesc("1", "x"));
+        try {
+            mapper.writer(schema).writeValue(new ByteArrayOutputStream(), row);
+            fail("Should not pass");
+        } catch (Exception e) {
+            verifyException(e, "does not support Object values");
+        }
+    }
+
+    @Test
+    public void testNestedMapValueFails() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder().addColumn("id").addColumn("value").addColumn("last").build();
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("id", "inner");
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", "a");
+        row.put("value", nested);
+        row.put("last", "z");
+        try {
+            mapper.writer(schema).writeValue(new ByteArrayOutputStream(), row);
+            fail("Should not pass");
+        } catch (Exception e) {
+            verifyException(e, "does not support Object values");
+        }
+    }
+
+    @Test
+    public void testWriterConfigAndKeySerializers() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder().addColumn("id").addColumn("when").build();
+        Date when = new SimpleDateFormat("yyyy-MM-dd").parse("2020-01-02");
+        Map<RowKey, Object> row = new HashMap<>();
+        row.put(RowKey.WHEN, when);
+        row.put(RowKey.ID, "a");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writer(schema)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .with(new SimpleDateFormat("yyyy/MM/dd"))
+                .writeValue(out, row);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("a", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("2020/01/02", sheet.getRow(0).getCell(1).getStringCellValue());
+        workbook.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+public class WriteNestedTest extends ModuleTestBase {
+
+    @JsonPropertyOrder({"city", "zip"})
+    protected static class Address {
+        public String city;
+        public int zip;
+
+        public Address(String city, int zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+    }
+
+    @JsonPropertyOrder({"name", "home", "work"})
+    protected static class Person {
+        public String name;
+        public Address home;
+        public Address work;
+
+        public Person(String name, Address home, Address work) {
+            this.name = name;
+            this.home = home;
+            this.work = work;
+        }
+    }
+
+    @JsonPropertyOrder({"id", "next"})
+    protected static class Node {
+        public String id;
+        public Node next;
+    }
+
+    @Test
+    public void testNestedSchema() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = mapper.schemaFor(Person.class);
+        assertEquals(5, schema.size());
+        assertEquals("name", schema.columnName(0));
+        assertEquals("home.city", schema.columnName(1));
+        assertEquals("home.zip", schema.columnName(2));
+        assertEquals("work.city", schema.columnName(3));
+        assertEquals("work.zip", schema.columnName(4));
+
+        // cyclic reference is not followed
+        schema = mapper.schemaFor(Node.class);
+        assertEquals(2, schema.size());
+        assertEquals("next", schema.columnName(1));
+    }
+
+    @Test
+    public void testWriteNested() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = mapper.schemaFor(Person.class).withHeader();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+            w.write(new Person("a", new Address("Kyoto", 600), new Address("Osaka", 530)));
+            w.write(new Person("b", null, new Address("Nara", 630)));
+        }
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("work.city", sheet.getRow(0).getCell(3).getStringCellValue());
+        assertEquals("a", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals("Kyoto", sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals(600.0, sheet.getRow(1).getCell(2).getNumericCellValue());
+        assertEquals("Osaka", sheet.getRow(1).getCell(3).getStringCellValue());
+        assertEquals(530.0, sheet.getRow(1).getCell(4).getNumericCellValue());
+        assertEquals("b", sheet.getRow(2).getCell(0).getStringCellValue());
+        assertNull(sheet.getRow(2).getCell(1));
+        assertEquals("Nara", sheet.getRow(2).getCell(3).getStringCellValue());
+        assertEquals(630.0, sheet.getRow(2).getCell(4).getNumericCellValue());
+        workbook.close();
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+public class WriteResultSetTest extends ModuleTestBase {
+    private static final String[] LABELS = {"id", "price", "active", "day", "at", "name"};
+    private static final int[] TYPES = {Types.BIGINT, Types.DECIMAL, Types.BOOLEAN,
+            Types.DATE, Types.TIMESTAMP, Types.VARCHAR};
+
+    private final Date day = Date.valueOf("2020-01-02");
+    private final Timestamp at = Timestamp.valueOf("2020-01-02 03:04:05");
+
+    @Test
+    public void testWriteResultSet() throws Exception {
+        int[] fetchSize = new int[1];
+        ResultSet rs = resultSet(fetchSize,
+                new Object[]{1L, 1.5, true, day, at, "a"},
+                new Object[]{null, null, null, null, null, null},
+                new Object[]{3L, null, false, null, null, "c"});
+        XlsxMapper mapper = new XlsxMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = mapper.writeResultSet(out, rs, mapper.schemaFor(rs.getMetaData()).withHeader(), 500);
+        assertEquals(3L, count);
+        assertEquals(500, fetchSize[0]);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        Row header = sheet.getRow(0);
+        for (int i = 0; i < LABELS.length; ++i) {
+            assertEquals(LABELS[i], header.getCell(i).getStringCellValue());
+        }
+
+        Row row = sheet.getRow(1);
+        assertEquals(CellType.NUMERIC, row.getCell(0).getCellType());
+        assertEquals(1.0, row.getCell(0).getNumericCellValue());
+        assertEquals(1.5, row.getCell(1).getNumericCellValue());
+        assertEquals(CellType.BOOLEAN, row.getCell(2).getCellType());
+        assertTrue(row.getCell(2).getBooleanCellValue());
+        Cell dayCell = row.getCell(3);
+        assertEquals("yyyy-mm-dd", dayCell.getCellStyle().getDataFormatString());
+        assertEquals(day.getTime(), dayCell.getDateCellValue().getTime());
+        Cell atCell = row.getCell(4);
+        assertEquals("yyyy-mm-dd hh:mm:ss", atCell.getCellStyle().getDataFormatString());
+        assertEquals(at.getTime(), atCell.getDateCellValue().getTime());
+        assertEquals("a", row.getCell(5).getStringCellValue());
+
+        // row of NULLs has no cells, but keeps its place
+        assertNull(sheet.getRow(2));
+
+        row = sheet.getRow(3);
+        assertEquals(3.0, row.getCell(0).getNumericCellValue());
+        assertNull(row.getCell(1));
+        assertFalse(row.getCell(2).getBooleanCellValue());
+        assertNull(row.getCell(3));
+        assertNull(row.getCell(4));
+        assertEquals("c", row.getCell(5).getStringCellValue());
+        assertEquals(3, sheet.getLastRowNum());
+        workbook.close();
+    }
+
+    @Test
+    public void testWithoutHeader() throws Exception {
+        ResultSet rs = resultSet(new int[1], new Object[]{7L, 2.0, true, null, null, "x"});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1L, new XlsxMapper().writeResultSet(out, rs, false));
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(7.0, sheet.getRow(0).getCell(0).getNumericCellValue());
+        assertEquals(0, sheet.getLastRowNum());
+        workbook.close();
+    }
+
+    @Test
+    public void testSchemaFor() throws Exception {
+        CsvSchema schema = new XlsxMapper().schemaFor(resultSet(new int[1]).getMetaData());
+        assertEquals(LABELS.length, schema.size());
+        assertEquals("price", schema.columnName(1));
+        assertEquals(CsvSchema.ColumnType.NUMBER, schema.column(0).getType());
+        assertEquals(CsvSchema.ColumnType.NUMBER, schema.column(1).getType());
+        assertEquals(CsvSchema.ColumnType.BOOLEAN, schema.column(2).getType());
+        assertEquals(CsvSchema.ColumnType.STRING, schema.column(3).getType());
+        assertEquals(CsvSchema.ColumnType.STRING, schema.column(5).getType());
+    }
+
+    /**
+     * Minimal read-only result set over given rows, with columns
+     * {@link #LABELS} of types {@link #TYPES}.
+     */
+    private static ResultSet resultSet(final int[] fetchSize, final Object[]... rows) {
+        final ResultSetMetaData metadata = (ResultSetMetaData) Proxy.newProxyInstance(
+                ResultSetMetaData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getColumnCount":
+                        return LABELS.length;
+                    case "getColumnLabel":
+                        return LABELS[(Integer) args[0] - 1];
+                    case "getColumnType":
+                        return TYPES[(Integer) args[0] - 1];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        final int[] cursor = {-1};
+        final boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getMetaData":
+                        return metadata;
+                    case "setFetchSize":
+                        fetchSize[0] = (Integer) args[0];
+                        return null;
+                    case "next":
+                        return ++cursor[0] < rows.length;
+                    case "wasNull":
+                        return wasNull[0];
+                    }
+                    if (!method.getName().startsWith("get") || args == null || !(args[0] instanceof Integer)) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Object value = rows[cursor[0]][(Integer) args[0] - 1];
+                    wasNull[0] = (value == null);
+                    switch (method.getName()) {
+                    case "getLong":
+                        return (value == null) ? 0L : ((Number) value).longValue();
+                    case "getDouble":
+                        return (value == null) ? 0.0 : ((Number) value).doubleValue();
+                    case "getBoolean":
+                        return (value != null) && (Boolean) value;
+                    case "getString":
+                        return (value == null) ? null : value.toString();
+                    default:
+                        return value;
+                    }
+                });
+    }
+}
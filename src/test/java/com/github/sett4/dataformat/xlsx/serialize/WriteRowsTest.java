@@ -0,0 +1,74 @@
+package com.github.sett4.dataformat.xlsx.serialize;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.sett4.dataformat.xlsx.ModuleTestBase;
+import com.github.sett4.dataformat.xlsx.XlsxMapper;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class WriteRowsTest extends ModuleTestBase {
+
+    @Test
+    public void testWriteRows() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("name")
+                .addColumn("gender")
+                .addColumn("count")
+                .addColumn("amount")
+                .setUseHeader(true)
+                .build();
+        List<Object> rows = new ArrayList<>();
+        rows.add(new Object[]{"a", Gender.MALE, 1, new BigDecimal("1.5")});
+        rows.add(Arrays.asList(null, Gender.FEMALE, 2L, 2.5d));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writeRows(out, schema, rows);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("amount", sheet.getRow(0).getCell(3).getStringCellValue());
+        assertEquals("a", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals("MALE", sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals(CellType.NUMERIC, sheet.getRow(1).getCell(2).getCellType());
+        assertEquals(1.5, sheet.getRow(1).getCell(3).getNumericCellValue());
+        assertNull(sheet.getRow(2).getCell(0));
+        assertEquals("FEMALE", sheet.getRow(2).getCell(1).getStringCellValue());
+        assertEquals(2.0, sheet.getRow(2).getCell(2).getNumericCellValue());
+        assertEquals(2.5, sheet.getRow(2).getCell(3).getNumericCellValue());
+        workbook.close();
+    }
+
+    @Test
+    public void testMapperSerializersUsed() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        mapper.enable(SerializationFeature.WRITE_ENUMS_USING_INDEX);
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("name")
+                .addColumn("gender")
+                .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writeRows(out, schema, Arrays.asList(
+                new Object[]{"a", Gender.MALE},
+                new Object[]{"b", Gender.FEMALE}));
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(CellType.NUMERIC, sheet.getRow(0).getCell(1).getCellType());
+        assertEquals(0.0, sheet.getRow(0).getCell(1).getNumericCellValue());
+        assertEquals(1.0, sheet.getRow(1).getCell(1).getNumericCellValue());
+        workbook.close();
+    }
+}
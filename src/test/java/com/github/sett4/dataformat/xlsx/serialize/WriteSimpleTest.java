@@ -16,6 +16,7 @@ import org.junit.Test;
 import java.io.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class WriteSimpleTest extends ModuleTestBase {
@@ -48,6 +49,39 @@ public class WriteSimpleTest extends ModuleTestBase {
 
     }
 
+    @Test
+    public void testHeaderOnly() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = mapper.schemaFor(IdDesc.class).withHeader();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writer(schema).writeValue(out, new ArrayList<IdDesc>());
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("id", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals(0, sheet.getLastRowNum());
+        workbook.close();
+    }
+
+    @Test
+    public void testRootArraysWithoutGaps() throws Exception {
+        XlsxMapper mapper = new XlsxMapper();
+        CsvSchema schema = mapper.schemaFor(IdDesc.class).withHeader();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter w = mapper.writer(schema).writeValues(out)) {
+            w.write(Arrays.asList(new IdDesc("1", "a"), new IdDesc("2", "b")));
+            w.write(Arrays.asList(new IdDesc("3", "c")));
+        }
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals("id", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("2", sheet.getRow(2).getCell(0).getStringCellValue());
+        assertEquals("3", sheet.getRow(3).getCell(0).getStringCellValue());
+        assertEquals(3, sheet.getLastRowNum());
+        workbook.close();
+    }
+
     @Test
     public void testSimpleExplicit() throws Exception {
         CsvSchema schema = CsvSchema.builder()